@@ -171,6 +171,8 @@ CREATE TABLE `employee`  (
   PRIMARY KEY (`id`) USING BTREE,
   UNIQUE INDEX `uk_emp_id`(`emp_id` ASC) USING BTREE,
   INDEX `idx_dept_id`(`dept_id` ASC) USING BTREE,
+  INDEX `idx_employee_name`(`name` ASC) USING BTREE,
+  INDEX `idx_employee_join_date`(`join_date` ASC) USING BTREE,
   CONSTRAINT `fk_emp_dept` FOREIGN KEY (`dept_id`) REFERENCES `department` (`id`) ON DELETE RESTRICT ON UPDATE RESTRICT
 ) ENGINE = InnoDB AUTO_INCREMENT = 155 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '员工表' ROW_FORMAT = Dynamic;
 
@@ -194,7 +196,7 @@ CREATE TABLE `exam`  (
   `exam_date` datetime NOT NULL COMMENT '考试日期时间',
   `duration` int NULL DEFAULT NULL COMMENT '考试时长(分钟)',
   `subjects` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '考试科目(逗号分隔)',
-  `status` tinyint NOT NULL DEFAULT 0 COMMENT '状态(0:未开始, 1:进行中, 2:已结束)',
+  `status` tinyint NOT NULL DEFAULT 0 COMMENT '状态(0:未开始, 1:进行中, 2:已结束, 3:删除中)',
   `remark` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '备注',
   `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -237,6 +239,28 @@ INSERT INTO `exam_class_link` VALUES (5, 1);
 INSERT INTO `exam_class_link` VALUES (5, 2);
 INSERT INTO `exam_class_link` VALUES (16, 1);
 
+-- ----------------------------
+-- Table structure for exam_seat
+-- ----------------------------
+DROP TABLE IF EXISTS `exam_seat`;
+CREATE TABLE `exam_seat`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '座位ID',
+  `exam_id` bigint NOT NULL COMMENT '考试ID',
+  `student_id` bigint NOT NULL COMMENT '学生ID',
+  `room_no` int NOT NULL COMMENT '考场序号',
+  `room_name` varchar(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '考场名称',
+  `row_no` int NOT NULL COMMENT '行号',
+  `col_no` int NOT NULL COMMENT '列号',
+  `seat_no` int NOT NULL COMMENT '考场内座位号',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_exam_student`(`exam_id` ASC, `student_id` ASC) USING BTREE,
+  UNIQUE INDEX `uk_exam_room_seat`(`exam_id` ASC, `room_no` ASC, `seat_no` ASC) USING BTREE,
+  INDEX `idx_seat_student_id`(`student_id` ASC) USING BTREE,
+  CONSTRAINT `fk_seat_exam` FOREIGN KEY (`exam_id`) REFERENCES `exam` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT `fk_seat_student` FOREIGN KEY (`student_id`) REFERENCES `student` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '考试座位表' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for exam_subject
 -- ----------------------------
@@ -370,6 +394,38 @@ INSERT INTO `messages` VALUES (3, 1, 1, '好的，我已收到，马上责令学
 INSERT INTO `messages` VALUES (10, 1, 8, '感谢！', 1, '2025-06-07 20:25:11');
 INSERT INTO `messages` VALUES (11, 2, 8, '你好？', 0, '2025-06-15 21:16:17');
 
+-- ----------------------------
+-- Table structure for purge_job
+-- ----------------------------
+DROP TABLE IF EXISTS `purge_job`;
+CREATE TABLE `purge_job`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '任务ID',
+  `target_type` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '删除对象类型(EXAM)',
+  `target_id` bigint NOT NULL COMMENT '删除对象ID',
+  `status` tinyint NOT NULL DEFAULT 0 COMMENT '状态(0:等待, 1:执行中, 2:已完成, 3:失败)',
+  `total_rows` bigint NOT NULL DEFAULT 0 COMMENT '待删除行数',
+  `deleted_rows` bigint NOT NULL DEFAULT 0 COMMENT '已删除行数',
+  `message` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '失败原因',
+  `attempts` int NOT NULL DEFAULT 0 COMMENT '已执行次数',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_purge_status`(`status` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '后台分批删除任务表' ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Table structure for revoked_token
+-- ----------------------------
+DROP TABLE IF EXISTS `revoked_token`;
+CREATE TABLE `revoked_token`  (
+  `token_id` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT 'token ID(jti，旧 token 为其哈希)',
+  `user_id` bigint NULL DEFAULT NULL COMMENT '用户ID',
+  `expire_time` datetime NOT NULL COMMENT 'token 过期时间，过期后清理',
+  `create_time` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '吊销时间',
+  PRIMARY KEY (`token_id`) USING BTREE,
+  INDEX `idx_revoked_expire`(`expire_time` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '已吊销的 token' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for student
 -- ----------------------------
@@ -390,6 +446,7 @@ CREATE TABLE `student`  (
   UNIQUE INDEX `uk_student_id`(`student_id` ASC) USING BTREE,
   INDEX `idx_class_id`(`class_id` ASC) USING BTREE,
   INDEX `idx_student_user_id`(`user_id` ASC) USING BTREE,
+  INDEX `idx_student_name`(`name` ASC) USING BTREE,
   CONSTRAINT `fk_student_class` FOREIGN KEY (`class_id`) REFERENCES `class` (`id`) ON DELETE RESTRICT ON UPDATE CASCADE,
   CONSTRAINT `fk_student_user` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
 ) ENGINE = InnoDB AUTO_INCREMENT = 37 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '学生表' ROW_FORMAT = Dynamic;
@@ -427,6 +484,8 @@ CREATE TABLE `student_score`  (
   UNIQUE INDEX `uk_student_exam_subject`(`student_id` ASC, `exam_id` ASC, `subject` ASC) USING BTREE,
   INDEX `idx_student_id`(`student_id` ASC) USING BTREE,
   INDEX `idx_exam_id`(`exam_id` ASC) USING BTREE,
+  INDEX `idx_create_time_id`(`create_time` DESC, `id` DESC) USING BTREE,
+  INDEX `idx_exam_subject_score`(`exam_id` ASC, `subject` ASC, `score` DESC) USING BTREE,
   CONSTRAINT `fk_score_exam` FOREIGN KEY (`exam_id`) REFERENCES `exam` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
   CONSTRAINT `fk_score_student` FOREIGN KEY (`student_id`) REFERENCES `student` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE = InnoDB AUTO_INCREMENT = 195 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '学生成绩表' ROW_FORMAT = Dynamic;
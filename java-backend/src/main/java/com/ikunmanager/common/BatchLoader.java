@@ -0,0 +1,69 @@
+package com.ikunmanager.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 批量关联加载器（DataLoader 风格）：把“每个父对象查一次子表”合并成按 IN (...) 分块的少量查询，
+ * 再在内存中按父键分组，用于消除列表接口里的 N+1 查询。
+ * <pre>
+ * BatchLoader&lt;Long, ExamLinkRow&gt; loader = new BatchLoader&lt;&gt;(examMapper::findClassLinksByExamIds, ExamLinkRow::getExamId);
+ * Map&lt;Long, List&lt;ExamLinkRow&gt;&gt; byExam = loader.loadMany(examIds);
+ * </pre>
+ *
+ * @param <K> 父对象的键
+ * @param <R> 子表行
+ */
+public class BatchLoader<K, R> {
+
+    /** 单条 IN 查询的最大参数个数 */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final Function<List<K>, List<R>> query;
+    private final Function<R, K> keyOf;
+    private final int chunkSize;
+
+    public BatchLoader(Function<List<K>, List<R>> query, Function<R, K> keyOf) {
+        this(query, keyOf, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchLoader(Function<List<K>, List<R>> query, Function<R, K> keyOf, int chunkSize) {
+        this.query = query;
+        this.keyOf = keyOf;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 加载一组键对应的子表行，按键分组；没有任何行的键映射为空列表。行在组内保持查询返回的顺序。
+     */
+    public Map<K, List<R>> loadMany(Collection<K> keys) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        Map<K, List<R>> grouped = new HashMap<>(distinct.size() * 2);
+        for (K key : distinct) {
+            grouped.put(key, new ArrayList<>());
+        }
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<K> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            for (R row : query.apply(chunk)) {
+                List<R> group = grouped.get(keyOf.apply(row));
+                if (group != null) {
+                    group.add(row);
+                }
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * 加载单个键
+     */
+    public List<R> load(K key) {
+        return loadMany(Collections.singletonList(key)).get(key);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ikunmanager.common;
+
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * 内存缓存与统计结果的公共小工具。
+ */
+public final class CacheUtils {
+
+    private CacheUtils() {
+    }
+
+    /**
+     * 条目数超过 maxSize 时，按 lastAccess 从旧到新移除，直到不超过上限。
+     * 每次移除都遍历一遍，只适合几十个条目的小缓存（如按考试缓存的排名表、分布统计）。
+     */
+    public static <K, V> void evictLeastRecentlyUsed(Map<K, V> cache, int maxSize, ToLongFunction<V> lastAccess) {
+        while (cache.size() > maxSize) {
+            K oldestKey = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<K, V> entry : cache.entrySet()) {
+                long access = lastAccess.applyAsLong(entry.getValue());
+                if (access < oldestAccess) {
+                    oldestAccess = access;
+                    oldestKey = entry.getKey();
+                }
+            }
+            if (oldestKey == null) {
+                return;
+            }
+            cache.remove(oldestKey);
+        }
+    }
+
+    /**
+     * 保留两位小数，NaN（如空集合的平均值）返回 null
+     */
+    public static Double round2(double value) {
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ikunmanager.common;
+
+import javax.servlet.http.HttpServletResponse;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文件下载响应的公共设置。
+ */
+public final class DownloadUtils {
+
+    public static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    public static final String CSV_CONTENT_TYPE = "text/csv;charset=UTF-8";
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson;charset=UTF-8";
+
+    private DownloadUtils() {
+    }
+
+    /**
+     * 设置下载文件名与内容类型。文件名按 RFC 5987 编码，支持中文。
+     */
+    public static void prepare(HttpServletResponse response, String fileName, String contentType) {
+        String encoded = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
+        response.setContentType(contentType);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + encoded + "\"; filename*=UTF-8''" + encoded);
+    }
+
+    /**
+     * Excel 工作表名称不能包含 []:*?/\ 且不超过 31 个字符。
+     */
+    public static String safeSheetName(String name) {
+        if (name == null || name.isEmpty()) {
+            return "Sheet";
+        }
+        String cleaned = name.replaceAll("[\\[\\]:*?/\\\\]", "_");
+        return cleaned.length() > 31 ? cleaned.substring(0, 31) : cleaned;
+    }
+}
@@ -1,9 +1,11 @@
 package com.ikunmanager.common;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 /**
  * 全局异常处理器，将自定义业务异常和未知异常统一封装为 ApiResponse，
@@ -27,6 +29,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, status);
     }
 
+    /**
+     * 请求参数无法转换为声明的类型（如日期格式错误），返回 400 而不是 500
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiResponse<Void>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        ApiResponse<Void> body = ApiResponse.error(HttpStatus.BAD_REQUEST, "参数 " + ex.getName() + " 格式不正确");
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * 服务繁忙：503 并附带 Retry-After 头
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceBusyException(ServiceBusyException ex) {
+        ApiResponse<Void> body = ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     /**
      * 处理其它未知异常，统一返回 500
      */
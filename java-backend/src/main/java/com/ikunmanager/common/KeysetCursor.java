@@ -0,0 +1,56 @@
+package com.ikunmanager.common;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 键集分页的游标：上一页最后一行的排序键 + 主键，编码为不透明的 URL 安全字符串。
+ * 客户端只需原样回传，不应解析其内容。
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final String value;
+    private final long id;
+
+    public KeysetCursor(String value, long id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    /** 排序列的值（字符串形式），可能为 null */
+    public String getValue() {
+        return value;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(Object value, long id) {
+        return new KeysetCursor(value != null ? value.toString() : null, id).encode();
+    }
+
+    /**
+     * 解析客户端传回的游标，格式不正确时抛出 400
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            long id = Long.parseLong(raw.substring(0, sep));
+            String value = raw.substring(sep + 1);
+            return new KeysetCursor(value.isEmpty() ? null : value, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ikunmanager.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 关联表（多对多）更新时的差异：只插入新增的关联、删除去掉的关联，保留不变的行。
+ */
+public final class LinkDiff<K> {
+
+    private final List<K> toAdd;
+    private final List<K> toRemove;
+
+    private LinkDiff(List<K> toAdd, List<K> toRemove) {
+        this.toAdd = toAdd;
+        this.toRemove = toRemove;
+    }
+
+    public static <K> LinkDiff<K> of(Collection<K> existing, Collection<K> desired) {
+        Set<K> current = new LinkedHashSet<>(existing);
+        Set<K> target = desired != null ? new LinkedHashSet<>(desired) : new LinkedHashSet<>();
+        List<K> toAdd = new ArrayList<>();
+        for (K key : target) {
+            if (!current.contains(key)) {
+                toAdd.add(key);
+            }
+        }
+        List<K> toRemove = new ArrayList<>();
+        for (K key : current) {
+            if (!target.contains(key)) {
+                toRemove.add(key);
+            }
+        }
+        return new LinkDiff<>(toAdd, toRemove);
+    }
+
+    public List<K> getToAdd() {
+        return toAdd;
+    }
+
+    public List<K> getToRemove() {
+        return toRemove;
+    }
+
+    /**
+     * requested 中不在 found 里的元素（保持请求顺序），用于一次性报告所有不存在的ID
+     */
+    public static <K> List<K> missing(Collection<K> requested, Collection<K> found) {
+        Set<K> foundSet = new LinkedHashSet<>(found);
+        List<K> missing = new ArrayList<>();
+        for (K key : new LinkedHashSet<>(requested)) {
+            if (!foundSet.contains(key)) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,176 @@
+package com.ikunmanager.common;
+
+import com.github.pagehelper.PageHelper;
+import com.github.pagehelper.PageInfo;
+import com.ikunmanager.dto.KeysetPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 列表接口统一的分页 / 排序参数，由 ListQueryArgumentResolver 从请求参数构建：
+ * <ul>
+ *     <li>mode=page：PageHelper 分页（pageNum、pageSize），返回 PageInfo</li>
+ *     <li>mode=keyset：键集分页，传入上一页的 nextCursor 作为 after，不统计总数，适合翻到很深的页，返回 KeysetPage</li>
+ *     <li>mode=all：旧版行为，用原有查询返回全部记录（List），忽略排序参数</li>
+ * </ul>
+ * sort 为白名单（{@link SortableColumns}）中的参数名，order 为 asc / desc。
+ * 不传 mode 时的默认值由 app.list.legacy-full-list 决定，兼容尚未改为分页的前端。
+ * <p>
+ * Mapper XML 中使用 sortColumn / direction / comparator（只会是白名单中的列和固定关键字，可安全地用 ${} 拼接），
+ * 以及 afterValue / afterId / limit（键集条件，用 #{} 绑定）；可为 NULL 的排序列见 sortNullable。
+ */
+public class ListQuery {
+
+    public enum Mode { ALL, PAGE, KEYSET }
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final Mode mode;
+    private final int pageNum;
+    private final int pageSize;
+    private final String sort;
+    private final Boolean desc;
+    private final String after;
+
+    // 以下由 fetch 按白名单解析后填入，供 Mapper XML 使用
+    private String sortColumn;
+    private String idColumn;
+    private boolean descending;
+    private boolean sortNullable;
+    private Object afterValue;
+    private Long afterId;
+    private Integer limit;
+
+    public ListQuery(Mode mode, int pageNum, int pageSize, String sort, String order, String after) {
+        if (mode != Mode.ALL && (pageSize < 1 || pageSize > MAX_PAGE_SIZE)) {
+            throw new CustomException(400, "pageSize 须在 1-" + MAX_PAGE_SIZE + " 之间");
+        }
+        if (pageNum < 1) {
+            throw new CustomException(400, "pageNum 须从 1 开始");
+        }
+        this.mode = mode;
+        this.pageNum = pageNum;
+        this.pageSize = pageSize;
+        this.sort = sort != null && !sort.isEmpty() ? sort : null;
+        this.desc = parseOrder(order);
+        this.after = after != null && !after.isEmpty() ? after : null;
+    }
+
+    /**
+     * 解析 mode 参数，不合法时抛出 400
+     */
+    public static Mode parseMode(String mode) {
+        try {
+            return Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(400, "mode 只能是 page、keyset 或 all");
+        }
+    }
+
+    /**
+     * 执行查询并包装为对应模式的结果：all 模式调用 fullList 返回 List；
+     * 其它模式按白名单解析排序后调用 loader，返回 PageInfo / KeysetPage。
+     * loader 中第一条 SQL 必须是列表查询本身（page 模式下 PageHelper 作用于它）。
+     */
+    public <T> Object fetch(SortableColumns<T> columns, Supplier<List<T>> fullList,
+                            Function<ListQuery, List<T>> loader) {
+        if (mode == Mode.ALL) {
+            return fullList.get();
+        }
+        String property = sort != null ? sort : columns.getDefaultSort();
+        SortableColumns.Column<T> column = columns.get(property);
+        this.sortColumn = column.sqlColumn;
+        this.idColumn = columns.getIdColumn();
+        this.descending = desc != null ? desc : (sort == null && columns.isDefaultDesc());
+        this.sortNullable = column.nullable;
+
+        if (mode == Mode.PAGE) {
+            PageHelper.startPage(pageNum, pageSize);
+            return new PageInfo<>(loader.apply(this));
+        }
+        if (after != null) {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            this.afterId = cursor.getId();
+            this.afterValue = cursor.getValue() != null ? column.parse(cursor.getValue()) : null;
+            // 只有可为 NULL 的列，游标（上一页最后一行）的排序值才可能为空
+            if (afterValue == null && !column.nullable) {
+                throw new CustomException(400, "无效的分页游标");
+            }
+        }
+        // 多取一行用来判断是否还有下一页
+        this.limit = pageSize + 1;
+        List<T> rows = loader.apply(this);
+        boolean hasMore = rows.size() > pageSize;
+        String next = null;
+        if (hasMore) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            T last = rows.get(rows.size() - 1);
+            next = KeysetCursor.encode(column.getter.apply(last), columns.idOf(last));
+        }
+        return new KeysetPage<>(rows, next, hasMore);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    /** 是否按主键排序（此时不需要第二排序键） */
+    public boolean isSortById() {
+        return sortColumn != null && sortColumn.equals(idColumn);
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /** 排序列可为 NULL，键集条件需要处理 NULL 行 */
+    public boolean isSortNullable() {
+        return sortNullable;
+    }
+
+    public String getDirection() {
+        return descending ? "DESC" : "ASC";
+    }
+
+    /** 键集条件中“排在游标之后”的比较符 */
+    public String getComparator() {
+        return descending ? "<" : ">";
+    }
+
+    public Object getAfterValue() {
+        return afterValue;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    private static Boolean parseOrder(String order) {
+        if (order == null || order.isEmpty()) {
+            return null;
+        }
+        if ("asc".equalsIgnoreCase(order)) {
+            return false;
+        }
+        if ("desc".equalsIgnoreCase(order)) {
+            return true;
+        }
+        throw new CustomException(400, "order 只能是 asc 或 desc");
+    }
+}
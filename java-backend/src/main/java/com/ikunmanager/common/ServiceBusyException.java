@@ -0,0 +1,19 @@
+package com.ikunmanager.common;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 服务繁忙（如线程池队列已满），返回 503 并通过 Retry-After 告知客户端多久后重试
+ */
+public class ServiceBusyException extends CustomException {
+    private final int retryAfterSeconds;
+
+    public ServiceBusyException(String message, int retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ikunmanager.common;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 某个列表接口允许排序的列（白名单）：请求参数名 → SQL 列。
+ * <p>
+ * 只登记有索引（InnoDB 二级索引隐含主键，即 (列, id)）的列，这样分页与键集分页都能走索引；
+ * 可为 NULL 的列须用 {@link #nullableColumn} 登记，键集条件会按 MySQL 的 NULL 排序位置处理。
+ * 列名会直接拼入 ORDER BY，只能来自这里的常量，不能来自请求。
+ */
+public final class SortableColumns<T> {
+
+    private final String idColumn;
+    private final Function<T, Long> idGetter;
+    private final Map<String, Column<T>> columns = new LinkedHashMap<>();
+    private String defaultSort;
+    private boolean defaultDesc;
+
+    private SortableColumns(String idColumn, Function<T, Long> idGetter) {
+        this.idColumn = idColumn;
+        this.idGetter = idGetter;
+        column("id", idColumn, Long.class, idGetter);
+        this.defaultSort = "id";
+    }
+
+    /**
+     * @param idColumn 主键列（含表别名），作为排序的第二关键字保证顺序稳定
+     */
+    public static <T> SortableColumns<T> of(String idColumn, Function<T, Long> idGetter) {
+        return new SortableColumns<>(idColumn, idGetter);
+    }
+
+    /**
+     * @param type Long / String / LocalDate / LocalDateTime，用于还原键集游标中的值
+     */
+    public SortableColumns<T> column(String property, String sqlColumn, Class<?> type, Function<T, ?> getter) {
+        columns.put(property, new Column<>(sqlColumn, type, getter, false));
+        return this;
+    }
+
+    /**
+     * 可为 NULL 的排序列：MySQL 升序时 NULL 在最前、倒序时在最后，游标停在 NULL 行时只按主键继续
+     */
+    public SortableColumns<T> nullableColumn(String property, String sqlColumn, Class<?> type, Function<T, ?> getter) {
+        columns.put(property, new Column<>(sqlColumn, type, getter, true));
+        return this;
+    }
+
+    public SortableColumns<T> defaultSort(String property, boolean desc) {
+        this.defaultSort = property;
+        this.defaultDesc = desc;
+        return this;
+    }
+
+    String getIdColumn() {
+        return idColumn;
+    }
+
+    Long idOf(T row) {
+        return idGetter.apply(row);
+    }
+
+    String getDefaultSort() {
+        return defaultSort;
+    }
+
+    boolean isDefaultDesc() {
+        return defaultDesc;
+    }
+
+    /**
+     * 按请求参数名查找列，不在白名单中时抛出 400
+     */
+    Column<T> get(String property) {
+        Column<T> column = columns.get(property);
+        if (column == null) {
+            throw new CustomException(400, "不支持按 " + property + " 排序，可选：" + String.join(", ", columns.keySet()));
+        }
+        return column;
+    }
+
+    static final class Column<T> {
+        final String sqlColumn;
+        final Class<?> type;
+        final Function<T, ?> getter;
+        final boolean nullable;
+
+        Column(String sqlColumn, Class<?> type, Function<T, ?> getter, boolean nullable) {
+            this.sqlColumn = sqlColumn;
+            this.type = type;
+            this.getter = getter;
+            this.nullable = nullable;
+        }
+
+        // 键集游标中的字符串还原为列的类型，格式不对时抛出 400
+        Object parse(String value) {
+            try {
+                if (type == Long.class) {
+                    return Long.valueOf(value);
+                }
+                if (type == LocalDate.class) {
+                    return LocalDate.parse(value);
+                }
+                if (type == LocalDateTime.class) {
+                    return LocalDateTime.parse(value);
+                }
+                return value;
+            } catch (RuntimeException e) {
+                throw new CustomException(400, "无效的分页游标");
+            }
+        }
+    }
+}
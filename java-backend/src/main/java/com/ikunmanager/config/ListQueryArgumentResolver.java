@@ -0,0 +1,54 @@
+package com.ikunmanager.config;
+
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.ListQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * 从 mode、pageNum、pageSize、sort、order、after 请求参数构建 {@link ListQuery}。
+ * 不传 mode 时：app.list.legacy-full-list=true 返回全部记录（旧版前端），否则按 page 分页。
+ */
+@Component
+public class ListQueryArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Value("${app.list.legacy-full-list:true}")
+    private boolean legacyFullList;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return ListQuery.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest request, WebDataBinderFactory binderFactory) {
+        String mode = request.getParameter("mode");
+        ListQuery.Mode resolved = mode != null && !mode.isEmpty()
+                ? ListQuery.parseMode(mode)
+                : (legacyFullList ? ListQuery.Mode.ALL : ListQuery.Mode.PAGE);
+        return new ListQuery(resolved,
+                intParam(request, "pageNum", 1),
+                intParam(request, "pageSize", 10),
+                request.getParameter("sort"),
+                request.getParameter("order"),
+                request.getParameter("after"));
+    }
+
+    private static int intParam(NativeWebRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new CustomException(400, name + " 必须是整数");
+        }
+    }
+}
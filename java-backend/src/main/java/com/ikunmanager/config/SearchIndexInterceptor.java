@@ -0,0 +1,106 @@
+package com.ikunmanager.config;
+
+import com.ikunmanager.entity.Employee;
+import com.ikunmanager.mapper.EmployeeMapper;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.mapper.UserMapper;
+import com.ikunmanager.model.Student;
+import com.ikunmanager.model.User;
+import com.ikunmanager.service.SearchIndex;
+import com.ikunmanager.service.SearchService;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 拦截 StudentMapper、EmployeeMapper、UserMapper 的写操作，通知 SearchService 更新搜索索引。
+ * <p>
+ * 参数是实体（insert/update，插入后已回填 ID）或带 id/ids 的参数表时按 ID 更新，
+ * 其它情况（如多行 batchInsert）交给 SearchService 全量重建该类型。
+ */
+@Component
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class SearchIndexInterceptor implements Interceptor {
+
+    private static final String STUDENT_NAMESPACE = StudentMapper.class.getName() + ".";
+    private static final String EMPLOYEE_NAMESPACE = EmployeeMapper.class.getName() + ".";
+    private static final String USER_NAMESPACE = UserMapper.class.getName() + ".";
+
+    // SearchService 依赖的 Mapper 又依赖本拦截器所在的 SqlSessionFactory，延迟注入打破循环
+    @Autowired
+    @Lazy
+    private SearchService searchService;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        String type = typeOf(statement.getId());
+        if (type != null) {
+            searchService.changed(type, idsOf(invocation.getArgs()[1]));
+        }
+        return result;
+    }
+
+    private static String typeOf(String statementId) {
+        if (statementId.startsWith(STUDENT_NAMESPACE)) {
+            return SearchIndex.STUDENT;
+        }
+        if (statementId.startsWith(EMPLOYEE_NAMESPACE)) {
+            return SearchIndex.EMPLOYEE;
+        }
+        if (statementId.startsWith(USER_NAMESPACE)) {
+            return SearchIndex.USER;
+        }
+        return null;
+    }
+
+    // 无法确定受影响记录时返回 null
+    private static Collection<Long> idsOf(Object parameter) {
+        if (parameter instanceof Student) {
+            return singleton(((Student) parameter).getId());
+        }
+        if (parameter instanceof Employee) {
+            return singleton(((Employee) parameter).getId());
+        }
+        if (parameter instanceof User) {
+            return singleton(((User) parameter).getId());
+        }
+        if (parameter instanceof Long) {
+            return singleton((Long) parameter);
+        }
+        if (parameter instanceof Map) {
+            Map<?, ?> params = (Map<?, ?>) parameter;
+            if (params.containsKey("id") && params.get("id") instanceof Long) {
+                return singleton((Long) params.get("id"));
+            }
+            if (params.containsKey("ids") && params.get("ids") instanceof Collection) {
+                List<Long> ids = new ArrayList<>();
+                for (Object id : (Collection<?>) params.get("ids")) {
+                    if (!(id instanceof Long)) {
+                        return null;
+                    }
+                    ids.add((Long) id);
+                }
+                return ids;
+            }
+        }
+        return null;
+    }
+
+    private static Collection<Long> singleton(Long id) {
+        return id != null ? Collections.singletonList(id) : null;
+    }
+}
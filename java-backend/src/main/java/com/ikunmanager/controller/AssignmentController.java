@@ -6,14 +6,14 @@ import com.ikunmanager.dto.AssignmentCreateRequest;
 import com.ikunmanager.dto.AssignmentResponse;
 import com.ikunmanager.entity.Assignment;
 import com.ikunmanager.service.AssignmentService;
-import com.ikunmanager.security.JwtTokenProvider;
+import com.ikunmanager.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 
 @RestController
@@ -23,38 +23,34 @@ public class AssignmentController {
     @Autowired
     private AssignmentService assignmentService;
 
-    @Autowired
-    private JwtTokenProvider tokenProvider;
-
-    // Helper method to get user ID from token
-    private Long getUserIdFromRequest(HttpServletRequest request) {
-        String jwt = tokenProvider.getJwtFromRequest(request);
-        if (jwt == null) {
+    // 当前用户由 JwtAuthenticationFilter 根据 token 声明构建
+    private static AuthenticatedUser requireUser(AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             throw new CustomException(HttpStatus.UNAUTHORIZED, "未认证或令牌无效");
         }
-        return tokenProvider.getUserIdFromJWT(jwt);
+        return currentUser;
     }
 
     @PostMapping
     @PreAuthorize("hasRole(\'TEACHER\') or hasRole(\'ADMIN\')")
-    public ResponseEntity<ApiResponse<Assignment>> createAssignment(@RequestBody AssignmentCreateRequest request, HttpServletRequest httpRequest) {
-        Long teacherId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse<Assignment>> createAssignment(@RequestBody AssignmentCreateRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long teacherId = requireUser(currentUser).getUserId();
         ApiResponse<Assignment> response = assignmentService.createAssignment(request, teacherId);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole(\'TEACHER\') or hasRole(\'ADMIN\')")
-    public ResponseEntity<ApiResponse<Assignment>> updateAssignment(@PathVariable Long id, @RequestBody AssignmentCreateRequest request, HttpServletRequest httpRequest) {
-        Long teacherId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse<Assignment>> updateAssignment(@PathVariable Long id, @RequestBody AssignmentCreateRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long teacherId = requireUser(currentUser).getUserId();
         ApiResponse<Assignment> response = assignmentService.updateAssignment(id, request, teacherId);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole(\'TEACHER\') or hasRole(\'ADMIN\')")
-    public ResponseEntity<ApiResponse<Void>> deleteAssignment(@PathVariable Long id, HttpServletRequest httpRequest) {
-        Long teacherId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse<Void>> deleteAssignment(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long teacherId = requireUser(currentUser).getUserId();
         ApiResponse<Void> response = assignmentService.deleteAssignment(id, teacherId);
         return ResponseEntity.status(response.getCode()).body(response);
     }
@@ -84,9 +80,8 @@ public class AssignmentController {
 
     @GetMapping("/student")
     @PreAuthorize("hasRole(\'STUDENT\')")
-    public ResponseEntity<ApiResponse<List<AssignmentResponse>>> getAssignmentsForStudent(HttpServletRequest httpRequest) {
-        Long studentId = getUserIdFromRequest(httpRequest);
-        ApiResponse<List<AssignmentResponse>> response = assignmentService.getAssignmentsByStudentId(studentId);
+    public ResponseEntity<ApiResponse<List<AssignmentResponse>>> getAssignmentsForStudent(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        ApiResponse<List<AssignmentResponse>> response = assignmentService.getAssignmentsForStudent(requireUser(currentUser));
         return ResponseEntity.status(response.getCode()).body(response);
     }
 } 
\ No newline at end of file
@@ -1,19 +1,23 @@
 package com.ikunmanager.controller;
 
+import com.ikunmanager.common.ApiResponse;
 import com.ikunmanager.dto.JwtAuthenticationResponse;
 import com.ikunmanager.dto.LoginRequest;
 import com.ikunmanager.security.JwtTokenProvider;
+import com.ikunmanager.security.PasswordHashExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -24,19 +28,35 @@ public class AuthController {
     @Autowired
     JwtTokenProvider tokenProvider;
 
-    @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    @Autowired
+    PasswordHashExecutor passwordHashExecutor;
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
+    /**
+     * 密码校验在 PasswordHashExecutor 中异步执行，请求线程立即释放；
+     * 排队已满时返回 503 + Retry-After。登录接口无状态，不写入 SecurityContext。
+     */
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody LoginRequest loginRequest) {
+        UsernamePasswordAuthenticationToken credentials = new UsernamePasswordAuthenticationToken(
+                loginRequest.getUsername(),
+                loginRequest.getPassword()
         );
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return passwordHashExecutor.submit(() -> authenticationManager.authenticate(credentials))
+                .thenApply(authentication -> ResponseEntity.ok(
+                        new JwtAuthenticationResponse(tokenProvider.generateToken(authentication))));
+    }
 
-        String jwt = tokenProvider.generateToken(authentication);
-        return ResponseEntity.ok(new JwtAuthenticationResponse(jwt));
+    /**
+     * 注销：当前 token 记入吊销列表直到过期，之后携带该 token 的请求一律视为未登录
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(HttpServletRequest request) {
+        String jwt = tokenProvider.getJwtFromRequest(request);
+        if (jwt == null || !tokenProvider.revokeToken(jwt)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error(HttpStatus.UNAUTHORIZED, "token 无效或已过期"));
+        }
+        return ResponseEntity.ok(ApiResponse.ok("已退出登录", null));
     }
 }
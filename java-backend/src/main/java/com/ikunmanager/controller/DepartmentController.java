@@ -1,6 +1,8 @@
 package com.ikunmanager.controller;
 
 import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.common.SortableColumns;
 import com.ikunmanager.entity.Department;
 import com.ikunmanager.mapper.DepartmentMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,13 +16,19 @@ import java.util.List;
 @RequestMapping("/api/departments")
 public class DepartmentController {
 
+    private static final SortableColumns<Department> LIST_COLUMNS = SortableColumns.<Department>of("d.id", Department::getId)
+            .column("deptName", "d.dept_name", String.class, Department::getDeptName)
+            .defaultSort("id", true);
+
     @Autowired
     private DepartmentMapper departmentMapper;
 
+    /**
+     * 部门列表（含人数）；mode / pageNum / pageSize / after 同学生列表，分页模式下可按名称模糊匹配，sort 可选 id / deptName
+     */
     @GetMapping
-    public ApiResponse<List<Department>> getAllDepartments() {
-        List<Department> departments = departmentMapper.findAll();
-        return ApiResponse.ok(departments);
+    public ApiResponse<?> getAllDepartments(@RequestParam(required = false) String name, ListQuery query) {
+        return ApiResponse.ok(query.fetch(LIST_COLUMNS, departmentMapper::findAll, q -> departmentMapper.findList(name, q)));
     }
 
     @GetMapping("/{id}")
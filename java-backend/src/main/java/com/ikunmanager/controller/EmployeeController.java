@@ -1,12 +1,14 @@
 package com.ikunmanager.controller;
 
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.common.SortableColumns;
 import com.ikunmanager.entity.Employee;
 import com.ikunmanager.service.EmployeeService;
 import com.ikunmanager.mapper.EmployeeMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
 
 import com.ikunmanager.dto.EmployeeStatsDTO;
 import com.ikunmanager.common.ApiResponse;
@@ -16,6 +18,13 @@ import org.springframework.http.HttpStatus;
 @RequestMapping("/api/employee")
 public class EmployeeController {
 
+    // 工号（uk_emp_id）、姓名（idx_employee_name）、入职时间（idx_employee_join_date）均有索引
+    private static final SortableColumns<Employee> LIST_COLUMNS = SortableColumns.<Employee>of("e.id", Employee::getId)
+            .column("empId", "e.emp_id", String.class, Employee::getEmpId)
+            .column("name", "e.name", String.class, Employee::getName)
+            .column("joinDate", "e.join_date", LocalDate.class, Employee::getJoinDate)
+            .defaultSort("id", true);
+
     private final EmployeeService employeeService;
     private final EmployeeMapper employeeMapper;
 
@@ -25,14 +34,20 @@ public class EmployeeController {
         this.employeeMapper = employeeMapper;
     }
 
+    /**
+     * 员工列表，mode / pageNum / pageSize / after 同学生列表；sort 可选 id / empId / name / joinDate，默认 id 倒序
+     */
     @GetMapping("/list")
-    public ApiResponse<List<Employee>> getEmployeeList(
+    public ApiResponse<?> getEmployeeList(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String empId,
             @RequestParam(required = false) String deptName,
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) String status,
+            ListQuery query
     ) {
-        return ApiResponse.ok(employeeMapper.findAll(name, empId, deptName, status));
+        return ApiResponse.ok(query.fetch(LIST_COLUMNS,
+                () -> employeeMapper.findAll(name, empId, deptName, status),
+                q -> employeeMapper.findList(name, empId, deptName, status, q)));
     }
 
     @GetMapping("/stats")
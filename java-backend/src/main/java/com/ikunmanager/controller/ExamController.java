@@ -1,12 +1,28 @@
 package com.ikunmanager.controller;
 
 import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.common.SortableColumns;
+import com.ikunmanager.dto.ExamConflict;
+import com.ikunmanager.dto.ExamItemAnalysis;
+import com.ikunmanager.dto.ExamSeatRow;
+import com.ikunmanager.dto.SeatPlanRequest;
+import com.ikunmanager.dto.SeatPlanSummary;
 import com.ikunmanager.model.Exam;
+import com.ikunmanager.model.PurgeJob;
+import com.ikunmanager.service.ExamSeatService;
 import com.ikunmanager.service.ExamService;
+import com.ikunmanager.service.PurgeJobService;
 import com.ikunmanager.dto.ExamStatsDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -16,11 +32,39 @@ public class ExamController {
     @Autowired
     private ExamService examService;
 
+    @Autowired
+    private ExamSeatService examSeatService;
+
+    @Autowired
+    private PurgeJobService purgeJobService;
+
+    // 默认与旧版列表一致：考试时间倒序（idx_exam_date）
+    private static final SortableColumns<Exam> LIST_COLUMNS = SortableColumns.<Exam>of("id", Exam::getId)
+            .column("examDate", "exam_date", LocalDateTime.class, Exam::getExamDate)
+            .defaultSort("examDate", true);
+
+    /**
+     * 考试列表，mode / pageNum / pageSize / after 同学生列表；sort 可选 id / examDate，默认考试时间倒序
+     */
     @GetMapping("/list")
-    public ApiResponse<List<Exam>> getAllExams(@RequestParam(required = false) String examName,
-                                             @RequestParam(required = false) String examType) {
-        List<Exam> exams = examService.getAllExams(examName, examType);
-        return ApiResponse.ok(exams);
+    public ApiResponse<?> getAllExams(@RequestParam(required = false) String examName,
+                                      @RequestParam(required = false) String examType,
+                                      ListQuery query) {
+        return ApiResponse.ok(query.fetch(LIST_COLUMNS,
+                () -> examService.getAllExams(examName, examType),
+                q -> examService.findExamList(examName, examType, q)));
+    }
+
+    /**
+     * 列出时间范围内同一班级考试时间重叠的情况，如 ?from=2024-09-01&to=2025-01-31
+     */
+    @GetMapping("/conflicts")
+    public ApiResponse<List<ExamConflict>> getScheduleConflicts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ApiResponse.ok(examService.getScheduleConflicts(
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.atTime(LocalTime.MAX) : null));
     }
 
     @GetMapping("/{id}")
@@ -33,22 +77,38 @@ public class ExamController {
         }
     }
 
+    /**
+     * 新增考试。默认 allowConflict=false：关联班级在该时间段已有其他考试时返回 409 并列出冲突的考试，
+     * 确认要安排重叠考试时带上 ?allowConflict=true 重新提交（旧版不做此检查）
+     */
     @PostMapping("/add")
-    public ApiResponse<Exam> addExam(@RequestBody Exam exam) {
-        Exam newExam = examService.addExam(exam);
+    public ApiResponse<Exam> addExam(@RequestBody Exam exam,
+                                     @RequestParam(defaultValue = "false") boolean allowConflict) {
+        Exam newExam = examService.addExam(exam, allowConflict);
         return ApiResponse.ok(newExam);
     }
 
+    /**
+     * 修改考试，冲突检查与 allowConflict 参数同 /add（默认冲突时返回 409）
+     */
     @PutMapping("/update")
-    public ApiResponse<Exam> updateExam(@RequestBody Exam exam) {
-        Exam updatedExam = examService.updateExam(exam);
+    public ApiResponse<Exam> updateExam(@RequestBody Exam exam,
+                                        @RequestParam(defaultValue = "false") boolean allowConflict) {
+        Exam updatedExam = examService.updateExam(exam, allowConflict);
         return ApiResponse.ok(updatedExam);
     }
 
     @DeleteMapping("/delete/{id}")
-    public ApiResponse<Void> deleteExam(@PathVariable Long id) {
-        examService.deleteExam(id);
-        return ApiResponse.ok(null);
+    public ApiResponse<PurgeJob> deleteExam(@PathVariable Long id) {
+        return ApiResponse.ok(examService.deleteExam(id));
+    }
+
+    /**
+     * 考试删除任务的进度
+     */
+    @GetMapping("/purge-jobs/{jobId}")
+    public ApiResponse<PurgeJob> getPurgeJob(@PathVariable Long jobId) {
+        return ApiResponse.ok(purgeJobService.getJob(jobId));
     }
 
     @GetMapping("/types")
@@ -66,4 +126,34 @@ public class ExamController {
             return ApiResponse.error(500, "获取考试统计数据失败: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 考试质量分析：各科及格率、优秀率、难度、区分度及班级对比
+     */
+    @GetMapping("/{id}/analysis")
+    public ApiResponse<ExamItemAnalysis> getItemAnalysis(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "0.85") double excellentRatio) {
+        return ApiResponse.ok(examService.getItemAnalysis(id, excellentRatio));
+    }
+
+    /**
+     * 生成座位表：考试关联班级的全部学生按考场顺序排座，同班学生尽量不相邻；会覆盖已有座位表
+     */
+    @PostMapping("/{id}/seats")
+    public ApiResponse<SeatPlanSummary> allocateSeats(@PathVariable Long id, @RequestBody SeatPlanRequest request) {
+        return ApiResponse.ok(examSeatService.allocateSeats(id, request));
+    }
+
+    @GetMapping("/{id}/seats")
+    public ApiResponse<List<ExamSeatRow>> getSeats(@PathVariable Long id) {
+        return ApiResponse.ok(examSeatService.getSeats(id));
+    }
+
+    /**
+     * 导出座位表（xlsx），每个考场一个工作表
+     */
+    @GetMapping("/{id}/seats/export")
+    public void exportSeats(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        examSeatService.exportSeats(id, response);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ikunmanager.controller;
+
+import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.security.PasswordHashExecutor;
+import com.ikunmanager.security.PrincipalCache;
+import com.ikunmanager.security.TokenRevocationService;
+import com.ikunmanager.security.VerifiedTokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行时指标：各内存缓存的命中情况、密码校验线程池的排队与耗时等
+ * 仅管理员可访问（见 SecurityConfig）
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @GetMapping
+    public ApiResponse<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("jwtVerifiedCache", verifiedTokenCache.stats());
+        metrics.put("principalCache", principalCache.stats());
+        metrics.put("passwordHash", passwordHashExecutor.stats());
+        metrics.put("tokenRevocation", tokenRevocationService.stats());
+        return ApiResponse.ok(metrics);
+    }
+}
@@ -2,13 +2,30 @@ package com.ikunmanager.controller;
 
 import com.github.pagehelper.PageInfo;
 import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.common.SortableColumns;
 import com.ikunmanager.model.Score;
 import com.ikunmanager.dto.ScoreDetailDTO;
 import com.ikunmanager.dto.ExamTaken;
+import com.ikunmanager.dto.ClassSubjectMatrix;
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.dto.ScoreStatsDTO;
+import com.ikunmanager.dto.StudentTrend;
+import com.ikunmanager.service.ScoreExportService;
 import com.ikunmanager.service.ScoreService;
+import com.ikunmanager.service.ScoreStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 @RestController
@@ -18,13 +35,35 @@ public class ScoreController {
     @Autowired
     private ScoreService scoreService;
 
+    @Autowired
+    private ScoreExportService scoreExportService;
+
+    @Autowired
+    private ScoreStatsService scoreStatsService;
+
+    // 默认与旧版键集分页一致：创建时间倒序，create_time 为 NULL 的行排在最后
+    private static final SortableColumns<Score> LIST_COLUMNS = SortableColumns.<Score>of("id", Score::getId)
+            .nullableColumn("createTime", "create_time", LocalDateTime.class, Score::getCreateTime)
+            .defaultSort("createTime", true);
+
+    /**
+     * 成绩列表
+     * mode=keyset：键集分页，参数同学生列表，sort 可选 id / createTime（默认创建时间倒序），科目精确匹配
+     * 其它情况（不传 mode、page、all）：与旧版一样 PageHelper 分页，返回 PageInfo，科目模糊匹配；
+     * 成绩表行数大，不提供返回全部记录的 all 模式
+     */
     @GetMapping("/list")
-    public ApiResponse<PageInfo<Score>> getScoreList(
+    public ApiResponse<?> getScoreList(
             @RequestParam(required = false) Long studentId,
             @RequestParam(required = false) Long examId,
             @RequestParam(required = false) String subject,
             @RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize) {
+            @RequestParam(defaultValue = "10") int pageSize,
+            ListQuery query) {
+        if (query.getMode() == ListQuery.Mode.KEYSET) {
+            return ApiResponse.ok(query.fetch(LIST_COLUMNS, Collections::emptyList,
+                    q -> scoreService.findScoreList(studentId, examId, subject, q)));
+        }
         PageInfo<Score> pageInfo = scoreService.getScoresByPage(studentId, examId, subject, pageNum, pageSize);
         return ApiResponse.ok(pageInfo);
     }
@@ -91,6 +130,14 @@ public class ScoreController {
         return ApiResponse.ok(scores);
     }
 
+    /**
+     * 考试的班级×科目对比矩阵：平均分、最高分、最低分、及格率
+     */
+    @GetMapping("/exam/{examId}/matrix")
+    public ApiResponse<ClassSubjectMatrix> getClassSubjectMatrix(@PathVariable Long examId) {
+        return ApiResponse.ok(scoreStatsService.getClassSubjectMatrix(examId));
+    }
+
     @GetMapping("/student/{studentId}/exams-taken")
     public ApiResponse<List<ExamTaken>> getExamsTakenByStudentId(@PathVariable Long studentId) {
         List<ExamTaken> exams = scoreService.getExamsTakenByStudentId(studentId);
@@ -103,6 +150,14 @@ public class ScoreController {
         return ApiResponse.ok(upcomingExams);
     }
 
+    /**
+     * 学生历次考试的各科成绩与班级/年级排名趋势，一次返回
+     */
+    @GetMapping("/student/{studentId}/trend")
+    public ApiResponse<StudentTrend> getStudentTrend(@PathVariable Long studentId) {
+        return ApiResponse.ok(scoreService.getStudentTrend(studentId));
+    }
+
     /**
      * 获取学生某次考试的综合成绩报告
      */
@@ -116,4 +171,69 @@ public class ScoreController {
         }
         return ApiResponse.ok(report);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 批量导出整场考试（或某个班级）所有学生的成绩报告
+     * format=jsonl 时每行一个报告；format=xlsx 时每个班级一个工作表
+     */
+    @GetMapping("/exam/{examId}/reports")
+    public void exportStudentScoreReports(
+            @PathVariable Long examId,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(defaultValue = "xlsx") String format,
+            HttpServletResponse response) throws IOException {
+        if ("jsonl".equalsIgnoreCase(format)) {
+            scoreExportService.writeReportCardsAsJsonLines(examId, classId, response);
+        } else {
+            scoreExportService.writeReportCardsAsExcel(examId, classId, response);
+        }
+    }
+
+    /**
+     * 导出成绩明细（xlsx/csv），按考试或考试日期范围筛选
+     * layout=long 每个成绩一行；layout=wide 每名学生一行、科目为列
+     */
+    @GetMapping("/export")
+    public void exportScores(
+            @RequestParam(required = false) Long examId,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "long") String layout,
+            @RequestParam(defaultValue = "xlsx") String format,
+            HttpServletResponse response) throws IOException {
+        scoreExportService.exportScores(examId, classId, startDate, endDate, layout, format, response);
+    }
+
+    /**
+     * 从 Excel/CSV 批量导入某次考试的成绩
+     * 支持长表（学号/科目/成绩）和宽表（学号 + 各科目列），已存在的成绩会被覆盖
+     */
+    @PostMapping("/import")
+    public ApiResponse<ImportResult> importScores(
+            @RequestParam Long examId,
+            @RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "文件不能为空");
+        }
+        String fileName = file.getOriginalFilename();
+        boolean csv = fileName != null && fileName.toLowerCase().endsWith(".csv");
+        try (InputStream inputStream = file.getInputStream()) {
+            return ApiResponse.ok(scoreService.importScores(examId, inputStream, csv));
+        }
+    }
+
+    /**
+     * 成绩分布统计：直方图、P10/P50/P90、标准差、及格率与优秀率
+     * 不传 classId 时返回全年级（includeClasses=true 时附带各班级）
+     */
+    @GetMapping("/stats")
+    public ApiResponse<List<ScoreStatsDTO>> getScoreStats(
+            @RequestParam Long examId,
+            @RequestParam(required = false) Long classId,
+            @RequestParam(defaultValue = "false") boolean includeClasses,
+            @RequestParam(defaultValue = "10") double bucketWidth,
+            @RequestParam(defaultValue = "0.85") double excellentRatio) {
+        return ApiResponse.ok(scoreStatsService.getStats(examId, classId, includeClasses, bucketWidth, excellentRatio));
+    }
+}
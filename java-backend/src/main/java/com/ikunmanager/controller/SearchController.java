@@ -0,0 +1,32 @@
+package com.ikunmanager.controller;
+
+import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.dto.SearchHit;
+import com.ikunmanager.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    /**
+     * 输入联想：按姓名、学号/工号/用户名或姓名拼音首字母（如 zs 匹配“张三”）搜索，
+     * 完全匹配和前缀匹配排在子串匹配之前。type 可选 student / employee / user
+     */
+    @GetMapping("/typeahead")
+    public ApiResponse<List<SearchHit>> typeahead(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ApiResponse.ok(searchService.typeahead(q, type, limit));
+    }
+}
@@ -1,6 +1,9 @@
 package com.ikunmanager.controller;
 
 import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.common.SortableColumns;
+import com.ikunmanager.dto.ImportResult;
 import com.ikunmanager.model.IkunClass;
 import com.ikunmanager.model.Student;
 import com.ikunmanager.service.StudentService;
@@ -9,29 +12,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import com.alibaba.excel.EasyExcel;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/student")
 public class StudentController {
 
+    // 学号（uk_student_id）、姓名（idx_student_name）均有索引
+    private static final SortableColumns<Student> LIST_COLUMNS = SortableColumns.<Student>of("s.id", Student::getId)
+            .column("studentId", "s.student_id", String.class, Student::getStudentId)
+            .column("name", "s.name", String.class, Student::getName)
+            .defaultSort("id", true);
+
     @Autowired
     private StudentService studentService;
 
     @Autowired
     private ClassMapper classMapper;
 
+    /**
+     * 学生列表，可按姓名、学号模糊匹配及班级过滤
+     * mode=page：分页（pageNum、pageSize），mode=keyset：键集分页（after），mode=all：旧版全量列表（不支持班级过滤和排序）
+     * sort 可选 id / studentId / name，order 为 asc / desc，默认 id 倒序
+     */
     @GetMapping("/list")
-    public ApiResponse<List<Student>> getStudentList(
+    public ApiResponse<?> getStudentList(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String studentId) {
-        return ApiResponse.ok(studentService.getAllStudents(name, studentId));
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) Long classId,
+            ListQuery query) {
+        return ApiResponse.ok(query.fetch(LIST_COLUMNS,
+                () -> studentService.getAllStudents(name, studentId),
+                q -> studentService.findStudentList(name, studentId, classId, q)));
     }
 
     @GetMapping("/{id}")
@@ -79,47 +94,31 @@ public class StudentController {
         return ApiResponse.ok(studentService.getMaxStudentId());
     }
 
+    /**
+     * 从 Excel/CSV 批量导入学生，返回成功/失败行数及逐行错误。
+     * 默认只新增，学号已存在的行报错；update=true 时按学号更新已有学生（导出的名单修改后再导入）
+     */
     @PostMapping("/import")
-    public ApiResponse<Void> importStudents(@RequestParam("file") MultipartFile file) {
+    public ApiResponse<ImportResult> importStudents(@RequestParam("file") MultipartFile file,
+                                                    @RequestParam(defaultValue = "false") boolean update) throws IOException {
         if (file.isEmpty()) {
             return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "文件不能为空");
         }
-
+        String fileName = file.getOriginalFilename();
+        boolean csv = fileName != null && fileName.toLowerCase().endsWith(".csv");
         try (InputStream inputStream = file.getInputStream()) {
-            List<Map<Integer, String>> data = EasyExcel.read(inputStream).sheet().headRowNumber(1).doReadSync();
-
-            if (data == null || data.isEmpty()) {
-                return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Excel文件内容为空或格式不正确");
-            }
-            
-            List<Student> students = new ArrayList<>();
-            List<IkunClass> classes = classMapper.findAll(null);
-            Map<String, Long> classMap = classes.stream().collect(Collectors.toMap(IkunClass::getClassName, IkunClass::getId));
-
-            for (Map<Integer, String> row : data) {
-                Student student = new Student();
-                student.setStudentId(row.get(0));
-                student.setName(row.get(1));
-                student.setGender(row.get(2));
-                
-                String className = row.get(3);
-                if (!classMap.containsKey(className)) {
-                     return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "班级 '" + className + "' 不存在。");
-                }
-                student.setClassId(classMap.get(className));
-
-                student.setPhone(row.get(4));
-                student.setEmail(row.get(5));
-                // Note: JoinDate might need special handling for date format
-                // student.setJoinDate(...);
-                students.add(student);
-            }
-
-            studentService.batchAddStudents(students);
-            return ApiResponse.ok(null);
-
-        } catch (Exception e) {
-            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), "导入失败: " + e.getMessage());
+            return ApiResponse.ok(studentService.importStudents(inputStream, csv, update));
         }
     }
+
+    /**
+     * 导出学生名单（xlsx/csv），可按班级过滤；列与导入相同，修改后可用 /import?update=true 导入
+     */
+    @GetMapping("/export")
+    public void exportStudents(
+            @RequestParam(required = false) Long classId,
+            @RequestParam(defaultValue = "xlsx") String format,
+            HttpServletResponse response) throws IOException {
+        studentService.exportStudents(classId, format, response);
+    }
 }
@@ -7,14 +7,14 @@ import com.ikunmanager.dto.SubmissionRequest;
 import com.ikunmanager.dto.SubmissionResponse;
 import com.ikunmanager.entity.Submission;
 import com.ikunmanager.service.SubmissionService;
-import com.ikunmanager.security.JwtTokenProvider;
+import com.ikunmanager.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 
 @RestController
@@ -24,39 +24,32 @@ public class SubmissionController {
     @Autowired
     private SubmissionService submissionService;
 
-    @Autowired
-    private JwtTokenProvider tokenProvider;
-
-    // Helper method to get user ID from token
-    private Long getUserIdFromRequest(HttpServletRequest request) {
-        String jwt = tokenProvider.getJwtFromRequest(request);
-        if (jwt == null) {
+    // 当前用户由 JwtAuthenticationFilter 根据 token 声明构建
+    private static AuthenticatedUser requireUser(AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             throw new CustomException(HttpStatus.UNAUTHORIZED, "未认证或令牌无效");
         }
-        return tokenProvider.getUserIdFromJWT(jwt);
+        return currentUser;
     }
 
     @PostMapping
     @PreAuthorize("hasRole(\'STUDENT\')")
-    public ResponseEntity<ApiResponse<Submission>> submitAssignment(@RequestBody SubmissionRequest request, HttpServletRequest httpRequest) {
-        Long studentId = getUserIdFromRequest(httpRequest);
-        ApiResponse<Submission> response = submissionService.submitAssignment(request, studentId);
+    public ResponseEntity<ApiResponse<Submission>> submitAssignment(@RequestBody SubmissionRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        ApiResponse<Submission> response = submissionService.submitAssignment(request, requireUser(currentUser));
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole(\'STUDENT\')")
-    public ResponseEntity<ApiResponse<Submission>> updateSubmission(@PathVariable Long id, @RequestBody SubmissionRequest request, HttpServletRequest httpRequest) {
-        Long studentId = getUserIdFromRequest(httpRequest);
-        ApiResponse<Submission> response = submissionService.updateSubmission(id, request, studentId);
+    public ResponseEntity<ApiResponse<Submission>> updateSubmission(@PathVariable Long id, @RequestBody SubmissionRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        ApiResponse<Submission> response = submissionService.updateSubmission(id, request, requireUser(currentUser));
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole(\'STUDENT\')")
-    public ResponseEntity<ApiResponse<Void>> deleteSubmission(@PathVariable Long id, HttpServletRequest httpRequest) {
-        Long studentId = getUserIdFromRequest(httpRequest);
-        ApiResponse<Void> response = submissionService.deleteSubmission(id, studentId);
+    public ResponseEntity<ApiResponse<Void>> deleteSubmission(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        ApiResponse<Void> response = submissionService.deleteSubmission(id, requireUser(currentUser));
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
@@ -76,9 +69,8 @@ public class SubmissionController {
 
     @GetMapping("/my-submission/{assignmentId}")
     @PreAuthorize("hasRole(\'STUDENT\')")
-    public ResponseEntity<ApiResponse<SubmissionResponse>> getMySubmissionForAssignment(@PathVariable Long assignmentId, HttpServletRequest httpRequest) {
-        Long studentId = getUserIdFromRequest(httpRequest);
-        ApiResponse<SubmissionResponse> response = submissionService.getSubmissionByAssignmentIdAndStudentId(assignmentId, studentId);
+    public ResponseEntity<ApiResponse<SubmissionResponse>> getMySubmissionForAssignment(@PathVariable Long assignmentId, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        ApiResponse<SubmissionResponse> response = submissionService.getSubmissionByAssignmentIdAndStudentId(assignmentId, requireUser(currentUser));
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
@@ -91,8 +83,8 @@ public class SubmissionController {
 
     @PostMapping("/grade")
     @PreAuthorize("hasRole(\'TEACHER\') or hasRole(\'ADMIN\')")
-    public ResponseEntity<ApiResponse<Submission>> gradeSubmission(@RequestBody SubmissionGradeRequest request, HttpServletRequest httpRequest) {
-        Long teacherId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse<Submission>> gradeSubmission(@RequestBody SubmissionGradeRequest request, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long teacherId = requireUser(currentUser).getUserId();
         ApiResponse<Submission> response = submissionService.gradeSubmission(request, teacherId);
         return ResponseEntity.status(response.getCode()).body(response);
     }
@@ -1,6 +1,8 @@
 package com.ikunmanager.controller;
 
 import com.ikunmanager.common.ApiResponse;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.common.SortableColumns;
 import com.ikunmanager.mapper.UserMapper;
 import com.ikunmanager.model.User;
 import com.ikunmanager.service.UserService;
@@ -9,12 +11,16 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
 
+    // 用户名有唯一索引 uk_username
+    private static final SortableColumns<User> LIST_COLUMNS = SortableColumns.<User>of("u.id", User::getId)
+            .column("username", "u.username", String.class, User::getUsername)
+            .defaultSort("id", false);
+
     private final UserMapper userMapper;
     private final UserService userService;
 
@@ -28,14 +34,19 @@ public class UserController {
     public ApiResponse<User> getUserInfo() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
-        User user = userMapper.findByUsername(currentUsername);
+        User user = userService.findByUsername(currentUsername);
         System.out.println("Backend User Info fetched: " + user);
         return ApiResponse.ok(user);
     }
 
+    /**
+     * 用户列表；mode / pageNum / pageSize / after 同学生列表，分页模式下可按角色、用户名过滤，sort 可选 id / username，默认 id 正序
+     */
     @GetMapping
-    public ApiResponse<List<User>> getAllUsers() {
-        return ApiResponse.ok(userMapper.findAll());
+    public ApiResponse<?> getAllUsers(@RequestParam(required = false) String role,
+                                      @RequestParam(required = false) String username,
+                                      ListQuery query) {
+        return ApiResponse.ok(query.fetch(LIST_COLUMNS, userMapper::findAll, q -> userMapper.findList(role, username, q)));
     }
 
     @PutMapping("/profile")
@@ -43,7 +54,7 @@ public class UserController {
         // Get currently authenticated user's ID for security
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
-        User existingUser = userMapper.findByUsername(currentUsername);
+        User existingUser = userService.findByUsername(currentUsername);
 
         if (existingUser == null) {
             return ApiResponse.error(404, "User not found");
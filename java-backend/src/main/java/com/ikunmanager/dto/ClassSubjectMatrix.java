@@ -0,0 +1,34 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 考试的班级 × 科目对比矩阵
+ */
+@Data
+public class ClassSubjectMatrix {
+    private Long examId;
+    private List<String> subjects = new ArrayList<>();
+    private List<ClassRow> classes = new ArrayList<>();
+
+    @Data
+    public static class ClassRow {
+        private Long classId;
+        private String className;
+        private Map<String, Cell> cells = new LinkedHashMap<>(); // 科目 → 统计
+    }
+
+    @Data
+    public static class Cell {
+        private int count;
+        private BigDecimal average;
+        private BigDecimal max;
+        private BigDecimal min;
+        private Double passRate; // 百分比
+    }
+}
@@ -0,0 +1,19 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 某次考试按班级、科目分组聚合后的一行
+ */
+@Data
+public class ClassSubjectStatRow {
+    private Long classId;
+    private String className;
+    private String subject;
+    private Integer count;
+    private BigDecimal average;
+    private BigDecimal maxScore;
+    private BigDecimal minScore;
+    private Integer passCount;
+}
@@ -0,0 +1,29 @@
+package com.ikunmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 同一班级的两场考试时间重叠
+ */
+@Data
+public class ExamConflict {
+    private Long classId;
+    private String className;
+
+    private Long examId;
+    private String examName;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime examStart;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime examEnd;
+
+    private Long otherExamId;
+    private String otherExamName;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime otherStart;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime otherEnd;
+}
@@ -0,0 +1,44 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 考试质量分析报告：每个科目的及格率、优秀率、难度、区分度以及班级对比
+ */
+@Data
+public class ExamItemAnalysis {
+    private Long examId;
+    private String examName;
+    private List<SubjectAnalysis> subjects = new ArrayList<>();
+
+    @Data
+    public static class SubjectAnalysis {
+        private String subject;
+        private Double fullScore;
+        private Double passScore;
+        private Double excellentScore;
+        private int count;
+        private Double average;
+        private Double passRate;      // 百分比
+        private Double excellentRate; // 百分比
+        private Double difficulty;    // 难度系数 = 平均分 / 满分，越大越容易
+        private int groupSize;        // 高分组、低分组各自人数（总人数的 27%）
+        private Double highGroupAverage;
+        private Double lowGroupAverage;
+        private Double discrimination; // 区分度 = (高分组平均 - 低分组平均) / 满分
+        private List<ClassComparison> classes = new ArrayList<>();
+    }
+
+    @Data
+    public static class ClassComparison {
+        private Long classId;
+        private String className;
+        private int count;
+        private Double average;
+        private Double passRate;
+        private Double excellentRate;
+        private Double averageDiff; // 班级平均分 - 年级平均分
+    }
+}
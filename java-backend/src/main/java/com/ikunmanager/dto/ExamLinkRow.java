@@ -0,0 +1,13 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+
+/**
+ * 考试关联表的一行（exam_class_link 或 exam_subject），带上被关联对象的名称
+ */
+@Data
+public class ExamLinkRow {
+    private Long examId;
+    private Long targetId;   // 班级ID 或 科目ID
+    private String targetName;
+}
@@ -0,0 +1,16 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 考试时间段与其关联班级的一行，用于构建班级考试时间索引
+ */
+@Data
+public class ExamScheduleRow {
+    private Long examId;
+    private String examName;
+    private LocalDateTime examDate;
+    private Integer duration;
+    private Long classId;
+}
@@ -0,0 +1,19 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+
+/**
+ * 座位表的一行，用于查询与导出
+ */
+@Data
+public class ExamSeatRow {
+    private Integer roomNo;
+    private String roomName;
+    private Integer seatNo;
+    private Integer rowNo;
+    private Integer colNo;
+    private Long studentId;
+    private String studentNo;
+    private String studentName;
+    private String className;
+}
@@ -0,0 +1,16 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 考试科目的评分规则（exam_subject 与 subject 联查）
+ */
+@Data
+public class ExamSubjectRule {
+    private Long subjectId;
+    private String subjectName;
+    private BigDecimal fullScore;
+    private BigDecimal passScore;
+    private BigDecimal weight;
+}
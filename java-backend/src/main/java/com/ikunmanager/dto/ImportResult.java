@@ -0,0 +1,41 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果：统计成功/失败行数，并给出逐行错误信息
+ */
+@Data
+public class ImportResult {
+
+    /** 错误明细最多返回的条数，避免整张表都出错时响应过大 */
+    public static final int MAX_ERRORS = 1000;
+
+    private int totalRows;
+    private int successRows;
+    private int failedRows;
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 记录一行失败（行号从 1 开始，与 Excel 中看到的一致）
+     */
+    public void addError(int row, String message) {
+        failedRows++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    @Data
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 试卷质量分析的流式输入行：按科目、分数降序读取，subjectCount 为该科目的总人数
+ */
+@Data
+public class ItemAnalysisRow {
+    private Long classId;
+    private String className;
+    private String subject;
+    private BigDecimal score;
+    private Integer subjectCount;
+}
@@ -0,0 +1,20 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 键集分页结果：不统计总数，通过 nextCursor 继续获取下一页
+ */
+@Data
+public class KeysetPage<T> {
+    private List<T> list;
+    private String nextCursor; // 没有更多数据时为空
+    private boolean hasMore;
+
+    public KeysetPage(List<T> list, String nextCursor, boolean hasMore) {
+        this.list = list;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 成绩导出使用的扁平行，由游标逐行读取，不会整体加载到内存。
+ */
+@Data
+public class ScoreExportRow {
+    private Long examId;
+    private String examName;
+    private String examDate; // yyyy-MM-dd
+    private Long studentId;
+    private String studentNo;
+    private String studentName;
+    private String className;
+    private String subject;
+    private BigDecimal score;
+}
@@ -0,0 +1,15 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 构建考试排名表时使用的精简成绩行：只包含学生、所在班级、科目和分数。
+ */
+@Data
+public class ScoreRankingRow {
+    private Long studentId;
+    private Long classId;
+    private String subject;
+    private BigDecimal score;
+}
@@ -0,0 +1,42 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 某次考试某科目在一个班级（或全年级）内的成绩分布统计
+ */
+@Data
+public class ScoreStatsDTO {
+    private Long examId;
+    private Long classId; // 为空表示全年级
+    private String subject;
+    private Double fullScore;
+    private Double passScore;
+    private Double excellentScore;
+
+    private long count;
+    private Double average;
+    private Double standardDeviation;
+    private Double min;
+    private Double max;
+    private Double p10;
+    private Double p50;
+    private Double p90;
+    private Double passRate;      // 百分比，保留两位小数
+    private Double excellentRate; // 百分比，保留两位小数
+    private List<Bucket> histogram;
+
+    @Data
+    public static class Bucket {
+        private double from;
+        private double to;
+        private long count;
+
+        public Bucket(double from, double to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+    }
+}
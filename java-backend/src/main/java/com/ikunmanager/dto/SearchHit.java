@@ -0,0 +1,21 @@
+package com.ikunmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 输入联想的一条结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+    /** student / employee / user */
+    private String type;
+    private Long id;
+    /** 姓名（用户为显示名或用户名） */
+    private String title;
+    /** 学号 / 工号 / 用户名 */
+    private String subtitle;
+}
@@ -0,0 +1,15 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+
+/**
+ * 参加考试的学生（来自考试关联班级）
+ */
+@Data
+public class SeatCandidateRow {
+    private Long studentId;
+    private String studentNo;
+    private String studentName;
+    private Long classId;
+    private String className;
+}
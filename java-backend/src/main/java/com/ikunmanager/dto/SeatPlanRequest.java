@@ -0,0 +1,20 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 生成座位表的请求：考场按列表顺序依次排满
+ */
+@Data
+public class SeatPlanRequest {
+    private List<Room> rooms;
+
+    @Data
+    public static class Room {
+        private String name;
+        private Integer rows;
+        private Integer cols;
+    }
+}
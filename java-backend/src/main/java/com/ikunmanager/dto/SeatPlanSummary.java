@@ -0,0 +1,19 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+
+/**
+ * 座位表生成结果概要
+ */
+@Data
+public class SeatPlanSummary {
+    private Long examId;
+    private int studentCount;
+    private int classCount;
+    private int roomCount;
+    /** 实际使用的考场数 */
+    private int usedRooms;
+    /** 无法避开的同班相邻对数 */
+    private int adjacentSameClass;
+    private long allocationMillis;
+}
@@ -0,0 +1,38 @@
+package com.ikunmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 学生历次考试的成绩与排名趋势，按考试日期升序
+ */
+@Data
+public class StudentTrend {
+    private Long studentId;
+    private List<ExamPoint> exams = new ArrayList<>();
+
+    @Data
+    public static class ExamPoint {
+        private Long examId;
+        private String examName;
+        private String examType;
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate examDate;
+        private BigDecimal totalScore;
+        private Integer classTotalRank;
+        private Integer gradeTotalRank;
+        private List<SubjectPoint> subjects = new ArrayList<>();
+    }
+
+    @Data
+    public static class SubjectPoint {
+        private String subject;
+        private BigDecimal score;
+        private Integer classRank;
+        private Integer gradeRank;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 学生成绩趋势的扁平查询行。subject 为空时表示该场考试的总分行。
+ */
+@Data
+public class StudentTrendRow {
+    private Long examId;
+    private String examName;
+    private String examType;
+    private LocalDate examDate;
+    private String subject;
+    private BigDecimal score;
+    private Integer classRank;
+    private Integer gradeRank;
+}
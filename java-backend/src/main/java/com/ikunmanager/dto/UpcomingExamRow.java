@@ -0,0 +1,17 @@
+package com.ikunmanager.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 未开始考试与其关联班级的一行，用于构建班级 → 即将进行的考试索引
+ */
+@Data
+public class UpcomingExamRow {
+    private Long examId;
+    private String examName;
+    private String examType;
+    private LocalDateTime examDate;
+    private String subjects;
+    private Long classId;
+}
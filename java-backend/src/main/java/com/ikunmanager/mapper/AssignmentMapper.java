@@ -3,6 +3,7 @@ package com.ikunmanager.mapper;
 import com.ikunmanager.entity.Assignment;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -16,7 +17,8 @@ public interface AssignmentMapper {
     List<Assignment> selectByClassId(Long classId);
     
     // Assignment-Class Link methods
-    int insertAssignmentClassLink(@Param("assignmentId") Long assignmentId, @Param("classId") Long classId);
     int deleteAssignmentClassLinkByAssignmentId(Long assignmentId);
     List<Long> selectClassIdsByAssignmentId(Long assignmentId);
+    int batchInsertAssignmentClassLinks(@Param("assignmentId") Long assignmentId, @Param("classIds") Collection<Long> classIds);
+    int deleteAssignmentClassLinks(@Param("assignmentId") Long assignmentId, @Param("classIds") Collection<Long> classIds);
 } 
\ No newline at end of file
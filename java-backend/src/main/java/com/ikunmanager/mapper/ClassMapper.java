@@ -3,6 +3,7 @@ package com.ikunmanager.mapper;
 import com.ikunmanager.model.IkunClass;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -21,4 +22,13 @@ public interface ClassMapper {
     int delete(@Param("id") Long id);
     
     int batchInsert(@Param("classes") List<IkunClass> classes);
+
+    // 一组班级ID中实际存在的那些，用于批量校验
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // 同 findExistingIds，但对这些班级行加排他锁直到事务结束，用于按班级串行化考试时间冲突检查
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    // 按ID批量查询班级名称（只含 id、class_name）
+    List<IkunClass> findNamesByIds(@Param("ids") Collection<Long> ids);
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ikunmanager.mapper;
 
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.entity.Department;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -11,6 +12,9 @@ public interface DepartmentMapper {
 
     List<Department> findAll();
 
+    // 分页 / 排序列表，按部门名称模糊过滤
+    List<Department> findList(@Param("name") String name, @Param("query") ListQuery query);
+
     Department findById(@Param("id") Long id);
 
     void insert(Department department);
@@ -1,5 +1,6 @@
 package com.ikunmanager.mapper;
 
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.entity.Employee;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -15,6 +16,13 @@ public interface EmployeeMapper {
                            @Param("deptName") String deptName, 
                            @Param("status") String status);
 
+    // 分页 / 排序列表，排序与键集条件由 query 决定
+    List<Employee> findList(@Param("name") String name,
+                            @Param("empId") String empId,
+                            @Param("deptName") String deptName,
+                            @Param("status") String status,
+                            @Param("query") ListQuery query);
+
     Employee findById(@Param("id") Long id);
 
     int insert(Employee employee);
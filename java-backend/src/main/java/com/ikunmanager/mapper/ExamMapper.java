@@ -1,36 +1,78 @@
 package com.ikunmanager.mapper;
 
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.dto.ExamLinkRow;
+import com.ikunmanager.dto.ExamScheduleRow;
+import com.ikunmanager.dto.ExamSubjectRule;
+import com.ikunmanager.dto.UpcomingExamRow;
 import com.ikunmanager.model.Exam;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 @Mapper
 public interface ExamMapper {
     List<Exam> findAllExams(@Param("examName") String examName, @Param("examType") String examType);
+
+    // 分页 / 排序列表，排序与键集条件由 query 决定
+    List<Exam> findExamList(@Param("examName") String examName, @Param("examType") String examType,
+                            @Param("query") ListQuery query);
     Exam findExamById(@Param("id") Long id);
     int insertExam(Exam exam);
     int updateExam(Exam exam);
     int deleteExam(@Param("id") Long id);
 
+    // 标记为删除中（status = 3），成绩由后台任务分批删除后再删除考试行
+    int markPurging(@Param("id") Long id);
+
+    // 考试状态（包括删除中的考试），考试不存在时为 null；用于拒绝向删除中的考试写入成绩
+    Integer findStatusById(@Param("id") Long id);
+
+    // 只更新状态字段，供状态调度器批量使用
+    int updateStatusByIds(@Param("status") int status, @Param("ids") List<Long> ids);
+
+    // 全部考试的时间段及其关联班级，每个（考试, 班级）一行
+    List<ExamScheduleRow> findExamClassSchedule();
+
+    // 给定班级中时间段与 [start, end] 有交集的考试（不含删除中的考试），每个（考试, 班级）一行
+    List<ExamScheduleRow> findClassScheduleBetween(@Param("classIds") Collection<Long> classIds,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    // 尚未开始的考试及其关联班级，每个（考试, 班级）一行
+    List<UpcomingExamRow> findUpcomingExamClassRows();
+
+    // 状态调度器启动时加载：未结束的考试，以及标记为已结束但时间仍在未来的考试
+    List<Exam> findExamsForStatusSchedule();
+
     // Exam-Class Link
-    void insertExamClassLink(@Param("examId") Long examId, @Param("classId") Long classId);
     void deleteExamClassLinkByExamId(@Param("examId") Long examId);
+    int batchInsertExamClassLinks(@Param("examId") Long examId, @Param("classIds") Collection<Long> classIds);
+    int deleteExamClassLinks(@Param("examId") Long examId, @Param("classIds") Collection<Long> classIds);
 
     // Exam-Subject Link
-    void insertExamSubjectLink(@Param("examId") Long examId, @Param("subjectId") Long subjectId);
     void deleteExamSubjectLinkByExamId(@Param("examId") Long examId);
+    int batchInsertExamSubjectLinks(@Param("examId") Long examId, @Param("subjectIds") Collection<Long> subjectIds);
+    int deleteExamSubjectLinks(@Param("examId") Long examId, @Param("subjectIds") Collection<Long> subjectIds);
 
     // Utility method to get existing exam types
     List<String> findDistinctExamTypes();
 
     // Helper methods for populating transient fields
-    List<String> findClassNamesByExamId(@Param("examId") Long examId);
     List<Long> findClassIdsByExamId(@Param("examId") Long examId);
     List<String> findSubjectNamesByExamId(@Param("examId") Long examId);
     List<Long> findSubjectIdsByExamId(@Param("examId") Long examId);
 
+    // 批量版本：一次查询多场考试的关联班级/科目，配合 BatchLoader 使用
+    List<ExamLinkRow> findClassLinksByExamIds(@Param("examIds") Collection<Long> examIds);
+    List<ExamLinkRow> findSubjectLinksByExamIds(@Param("examIds") Collection<Long> examIds);
+
+    // 考试各科目的满分/及格线/权重
+    List<ExamSubjectRule> findSubjectRulesByExamId(@Param("examId") Long examId);
+
     // 获取考试总数
     Long getTotalExams();
 
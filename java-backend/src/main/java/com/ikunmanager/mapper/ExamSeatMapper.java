@@ -0,0 +1,28 @@
+package com.ikunmanager.mapper;
+
+import com.ikunmanager.dto.ExamSeatRow;
+import com.ikunmanager.dto.SeatCandidateRow;
+import com.ikunmanager.model.ExamSeat;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface ExamSeatMapper {
+
+    // 考试关联班级的全部学生，按班级、学号排序
+    List<SeatCandidateRow> findSeatCandidates(@Param("examId") Long examId);
+
+    int deleteByExamId(@Param("examId") Long examId);
+
+    long countByExamId(@Param("examId") Long examId);
+
+    // 删除某考试的至多 limit 个座位，供后台分批删除
+    int deleteChunkByExamId(@Param("examId") Long examId, @Param("limit") int limit);
+
+    int batchInsert(@Param("seats") List<ExamSeat> seats);
+
+    // 座位表，按考场、座位号排序
+    List<ExamSeatRow> findSeatsByExamId(@Param("examId") Long examId);
+}
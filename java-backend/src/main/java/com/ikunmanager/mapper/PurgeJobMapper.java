@@ -0,0 +1,30 @@
+package com.ikunmanager.mapper;
+
+import com.ikunmanager.model.PurgeJob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface PurgeJobMapper {
+
+    int insert(PurgeJob job);
+
+    PurgeJob findById(@Param("id") Long id);
+
+    // 重启后需要继续执行的任务：等待中，以及执行次数未达到 maxAttempts 的执行中、失败任务
+    List<PurgeJob> findUnfinished(@Param("maxAttempts") int maxAttempts);
+
+    // 执行次数已用完却仍是“执行中”的任务（进程在执行中崩溃或卡死）标记为失败
+    int failExhausted(@Param("maxAttempts") int maxAttempts, @Param("message") String message);
+
+    // 标记为执行中并累加执行次数
+    int startAttempt(@Param("id") Long id);
+
+    int updateStatus(@Param("id") Long id, @Param("status") int status, @Param("message") String message);
+
+    int updateTotalRows(@Param("id") Long id, @Param("totalRows") long totalRows);
+
+    int addDeletedRows(@Param("id") Long id, @Param("rows") int rows);
+}
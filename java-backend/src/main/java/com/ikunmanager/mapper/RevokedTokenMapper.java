@@ -0,0 +1,20 @@
+package com.ikunmanager.mapper;
+
+import com.ikunmanager.model.RevokedToken;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface RevokedTokenMapper {
+
+    // 重复注销同一 token 时忽略
+    int insert(RevokedToken token);
+
+    // 尚未过期的吊销记录
+    List<RevokedToken> findActive(@Param("now") LocalDateTime now);
+
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,11 +1,20 @@
 package com.ikunmanager.mapper;
 
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.model.Score;
 import com.ikunmanager.dto.ScoreDetailDTO;
+import com.ikunmanager.dto.ClassSubjectStatRow;
 import com.ikunmanager.dto.ExamTaken;
+import com.ikunmanager.dto.ItemAnalysisRow;
+import com.ikunmanager.dto.ScoreExportRow;
+import com.ikunmanager.dto.ScoreRankingRow;
+import com.ikunmanager.dto.StudentTrendRow;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Mapper
@@ -19,8 +28,19 @@ public interface ScoreMapper {
                     @Param("examId") Long examId,
                     @Param("subject") String subject);
 
+    /**
+     * 成绩列表（ListQuery 排序 / 键集分页），科目为精确匹配，以便使用索引
+     */
+    List<Score> findScoreList(@Param("studentId") Long studentId,
+                              @Param("examId") Long examId,
+                              @Param("subject") String subject,
+                              @Param("query") ListQuery query);
+
     Score findById(@Param("id") Long id);
 
+    // 同 findById，并带上学生所在班级（classId），供修改/删除时增量更新分布统计
+    Score findWithClassById(@Param("id") Long id);
+
     int insert(Score score);
 
     int update(Score score);
@@ -29,6 +49,17 @@ public interface ScoreMapper {
 
     int deleteByIds(@Param("ids") List<Long> ids);
 
+    long countByExamId(@Param("examId") Long examId);
+
+    // 删除某考试的至多 limit 条成绩，供后台分批删除
+    int deleteChunkByExamId(@Param("examId") Long examId, @Param("limit") int limit);
+
+    // 多行写入，按 uk_student_exam_subject 已存在则更新分数
+    int batchUpsert(@Param("scores") List<Score> scores);
+
+    // 查询一组成绩记录涉及的考试ID，用于删除前确定需要失效的排名表
+    List<Long> findExamIdsByIds(@Param("ids") List<Long> ids);
+
     List<Score> findByStudentIdAndExamId(@Param("studentId") Long studentId, @Param("examId") Long examId);
 
     // 新增：根据学生ID、考试ID和科目查找成绩
@@ -39,6 +70,47 @@ public interface ScoreMapper {
     // 新增：根据考试ID和班级ID获取成绩详情列表
     List<ScoreDetailDTO> findScoresByExamAndClass(@Param("examId") Long examId, @Param("classId") Long classId);
 
+    /**
+     * 逐行读取某次考试的全部成绩（学生、班级、科目、分数），用于构建内存排名表
+     * @param examId 考试ID
+     * @param handler 行处理器
+     */
+    void findRankingRowsByExam(@Param("examId") Long examId, ResultHandler<ScoreRankingRow> handler);
+
+    /**
+     * 以流式游标读取待导出的成绩，按考试、学生、科目排序。
+     * 游标需在事务（同一个 SqlSession）内遍历并关闭。
+     * @param examId 考试ID（可选）
+     * @param classId 班级ID（可选）
+     * @param startDate 考试日期下限（可选）
+     * @param endDate 考试日期上限，含当天（可选）
+     */
+    Cursor<ScoreExportRow> cursorScoresForExport(@Param("examId") Long examId,
+                                                 @Param("classId") Long classId,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+
+    /**
+     * 与 cursorScoresForExport 相同筛选条件下出现过的科目，用于宽表表头
+     */
+    List<String> findSubjectsForExport(@Param("examId") Long examId,
+                                       @Param("classId") Long classId,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    /**
+     * 某次考试按班级×科目聚合的平均分、最高分、最低分和及格人数（及格线取 exam_subject.pass_score，缺省 60）
+     * @param examId 考试ID
+     */
+    List<ClassSubjectStatRow> findClassSubjectStatsByExam(@Param("examId") Long examId);
+
+    /**
+     * 以流式游标读取某次考试的成绩，按科目、分数降序排列，每行附带该科目总人数，
+     * 供质量分析一次遍历算出高低分组。游标需在事务内遍历。
+     * @param examId 考试ID
+     */
+    Cursor<ItemAnalysisRow> cursorItemAnalysisRows(@Param("examId") Long examId);
+
     /**
      * 获取学生已参加的所有考试列表
      * @param studentId 学生ID
@@ -46,6 +118,18 @@ public interface ScoreMapper {
      */
     List<ExamTaken> findExamsTakenByStudentId(@Param("studentId") Long studentId);
 
+    /**
+     * 学生参加过的每场考试、每个科目的成绩及班级/年级排名（窗口函数在数据库中计算）
+     * @param studentId 学生ID
+     */
+    List<StudentTrendRow> findSubjectTrendByStudentId(@Param("studentId") Long studentId);
+
+    /**
+     * 学生参加过的每场考试的总分及班级/年级总分排名，subject 为空
+     * @param studentId 学生ID
+     */
+    List<StudentTrendRow> findTotalTrendByStudentId(@Param("studentId") Long studentId);
+
     /**
      * 获取学生即将进行的考试列表
      * @param studentId 学生ID
@@ -1,10 +1,14 @@
 package com.ikunmanager.mapper;
 
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.model.Student;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -12,6 +16,10 @@ public interface StudentMapper {
 
     List<Student> findAll(@Param("name") String name, @Param("studentId") String studentId);
 
+    // 分页 / 排序列表，排序与键集条件由 query 决定
+    List<Student> findList(@Param("name") String name, @Param("studentId") String studentId,
+                           @Param("classId") Long classId, @Param("query") ListQuery query);
+
     Student findById(@Param("id") Long id);
 
     int insert(Student student);
@@ -25,5 +33,22 @@ public interface StudentMapper {
     
     int batchInsert(@Param("students") List<Student> students);
 
+    // 按学号插入或更新（学号已存在时更新姓名、性别、班级、电话、邮箱），用于学生导入的更新模式
+    int batchUpsert(@Param("students") List<Student> students);
+
     Student selectByUserId(Long userId);
+
+    // 查询参加了某次考试（有成绩记录）的学生，可按班级过滤，按班级、学号排序
+    List<Student> findByExamParticipation(@Param("examId") Long examId, @Param("classId") Long classId);
+
+    // 全部学生的 id 与班级，用于内存中的学生 → 班级映射
+    @Select("SELECT id, class_id FROM student")
+    @ResultMap("StudentResultMap")
+    List<Student> findAllClassAssignments();
+
+    // 按学号批量查询学生（只返回 id、学号、班级），用于导入时解析学号
+    List<Student> findByStudentNos(@Param("studentNos") Collection<String> studentNos);
+
+    // 流式导出学生名单（列与导入一致），可按班级过滤，按班级、学号排序
+    Cursor<Student> cursorStudentsForExport(@Param("classId") Long classId);
 }
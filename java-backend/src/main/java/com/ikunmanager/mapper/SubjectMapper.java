@@ -3,6 +3,7 @@ package com.ikunmanager.mapper;
 import com.ikunmanager.model.Subject;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -10,6 +11,7 @@ public interface SubjectMapper {
     List<Subject> findAll();
     Subject findById(@Param("id") Long id);
     Subject findBySubjectName(@Param("subjectName") String subjectName);
+    List<Subject> findByIds(@Param("ids") Collection<Long> ids);
     int insertSubject(Subject subject);
     int updateSubject(Subject subject);
     int deleteSubject(@Param("id") Long id);
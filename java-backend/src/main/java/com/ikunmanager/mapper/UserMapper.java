@@ -1,12 +1,18 @@
 package com.ikunmanager.mapper;
 
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.model.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import java.util.List;
 
 @Mapper
 public interface UserMapper {
     List<User> findAll();
+
+    // 分页 / 排序列表，可按角色、用户名过滤
+    List<User> findList(@Param("role") String role, @Param("username") String username,
+                        @Param("query") ListQuery query);
     User findByUsername(String username);
     User findById(Long id);
     int insert(User user);
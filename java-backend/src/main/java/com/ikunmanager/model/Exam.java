@@ -27,7 +27,7 @@ public class Exam {
     // 数据库中存储的逗号分隔的科目名称字符串
     private String subjects;
 
-    private Integer status; // 0:未开始, 1:进行中, 2:已结束
+    private Integer status; // 0:未开始, 1:进行中, 2:已结束, 3:删除中（后台删除成绩，列表中不再显示）
 
     @JsonProperty("description")
     private String remark;
@@ -0,0 +1,21 @@
+package com.ikunmanager.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 考试座位安排：某考生在某考场的座位（行、列从 1 开始）
+ */
+@Data
+public class ExamSeat {
+    private Long id;
+    private Long examId;
+    private Long studentId;
+    private Integer roomNo;
+    private String roomName;
+    private Integer rowNo;
+    private Integer colNo;
+    private Integer seatNo;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,36 @@
+package com.ikunmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 后台分批删除任务，目前用于删除考试及其成绩
+ */
+@Data
+public class PurgeJob {
+    public static final int PENDING = 0;
+    public static final int RUNNING = 1;
+    public static final int FINISHED = 2;
+    public static final int FAILED = 3;
+
+    public static final String TYPE_EXAM = "EXAM";
+
+    private Long id;
+    private String targetType;
+    private Long targetId;
+    private Integer status; // 0:等待, 1:执行中, 2:已完成, 3:失败
+    /** 任务开始时待删除的行数 */
+    private Long totalRows;
+    private Long deletedRows;
+    private String message;
+    /** 已执行（含中断、失败）的次数，失败任务超过 app.purge.max-attempts 后不再自动重试 */
+    private Integer attempts;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,22 @@
+package com.ikunmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已吊销（注销）的 token，保留到 token 本身过期为止
+ */
+@Data
+public class RevokedToken {
+    /** token 的 jti；不含 jti 的旧 token 使用其 SHA-256 */
+    private String tokenId;
+    private Long userId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime expireTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+}
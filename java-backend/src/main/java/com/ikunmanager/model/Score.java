@@ -1,5 +1,6 @@
 package com.ikunmanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,4 +14,8 @@ public class Score {
     private BigDecimal score;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
+
+    /** 学生当时所在班级，仅 findWithClassById 填充，用于增量更新分布统计，不对外输出 */
+    @JsonIgnore
+    private Long classId;
 } 
\ No newline at end of file
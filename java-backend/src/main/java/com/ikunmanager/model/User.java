@@ -1,5 +1,6 @@
 package com.ikunmanager.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import java.time.LocalDateTime;
 import com.ikunmanager.dto.StudentInfo;
@@ -8,6 +9,8 @@ import com.ikunmanager.dto.StudentInfo;
 public class User {
     private Long id;
     private String username;
+    // 只从请求体读取（注册、改密码），不序列化到响应中，避免密码哈希随用户列表返回
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String email;
     private String avatar;
@@ -0,0 +1,89 @@
+package com.ikunmanager.security;
+
+import com.ikunmanager.model.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 当前请求的登录用户，由 JwtAuthenticationFilter 根据 token 中已签名的声明构建，
+ * 控制器通过 {@code @AuthenticationPrincipal AuthenticatedUser} 直接获取，无需再查询 user / student 表。
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal {
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_STUDENT_ID = "sid";
+
+    private final Long userId;
+    private final String username;
+    private final String role;
+    /** 学生表主键，仅学生账号有值 */
+    private final Long studentId;
+
+    public AuthenticatedUser(Long userId, String username, String role, Long studentId) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.studentId = studentId;
+    }
+
+    static AuthenticatedUser of(User user) {
+        Long studentId = user.getStudentInfo() != null ? user.getStudentInfo().getStudentPk() : null;
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), studentId);
+    }
+
+    /**
+     * 从 token 声明构建；旧版 token 不含 uid 时返回 null
+     */
+    static AuthenticatedUser fromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(),
+                claims.get(CLAIM_ROLE, String.class), claims.get(CLAIM_STUDENT_ID, Long.class));
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public boolean isStudent() {
+        return "student".equals(role);
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        if (role == null || role.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
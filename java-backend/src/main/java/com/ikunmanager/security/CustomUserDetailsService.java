@@ -1,7 +1,5 @@
 package com.ikunmanager.security;
 
-import com.ikunmanager.mapper.UserMapper;
-import com.ikunmanager.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,25 +7,23 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Primary;
 
-import java.util.ArrayList;
-
 @Service
 @Primary
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserMapper userMapper;
+    private final PrincipalCache principalCache;
 
     @Autowired
-    public CustomUserDetailsService(UserMapper userMapper) {
-        this.userMapper = userMapper;
+    public CustomUserDetailsService(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userMapper.findByUsername(username);
-        if (user == null) {
+        UserDetails userDetails = principalCache.findUserDetails(username);
+        if (userDetails == null) {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), new ArrayList<>());
+        return userDetails;
     }
 }
@@ -1,7 +1,6 @@
 package com.ikunmanager.security;
 
 import com.ikunmanager.model.User;
-import com.ikunmanager.mapper.UserMapper;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -16,6 +15,7 @@ import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 import java.nio.charset.StandardCharsets;
 
 @Component
@@ -23,6 +23,9 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    // 毫秒精度的签发时间；标准 iat 只精确到秒，无法与同一秒内的用户吊销区分先后
+    private static final String CLAIM_ISSUED_AT_MILLIS = "iatMs";
+
     // Using a secure key. In a real application, this should come from application.properties
     // This key is generated by Keys.secretKeyFor(SignatureAlgorithm.HS512) and is base64 encoded.
     // It's important to use a strong, long, and securely stored secret.
@@ -34,43 +37,118 @@ public class JwtTokenProvider {
     
     private Key key;
 
+    // JwtParser 是不可变、线程安全的，构建一次供所有请求复用
+    private JwtParser parser;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Autowired
-    private UserMapper userMapper;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         logger.info("JWT Secret: {}", jwtSecret);
     }
 
+    /**
+     * 生成 token。用户ID、角色以及学生账号的学生ID作为已签名声明写入，
+     * 后续请求据此构建 AuthenticatedUser，不再查询数据库。
+     */
     public String generateToken(Authentication authentication) {
         org.springframework.security.core.userdetails.User userPrincipal = (org.springframework.security.core.userdetails.User) authentication.getPrincipal();
+        // 刚完成认证，PrincipalCache 中已有该用户
+        User user = principalCache.findUser(userPrincipal.getUsername());
 
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti，注销时按此吊销
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
+                .claim(CLAIM_ISSUED_AT_MILLIS, now.getTime());
+        if (user != null) {
+            AuthenticatedUser principal = AuthenticatedUser.of(user);
+            builder.claim(AuthenticatedUser.CLAIM_USER_ID, principal.getUserId())
+                    .claim(AuthenticatedUser.CLAIM_ROLE, principal.getRole());
+            if (principal.getStudentId() != null) {
+                builder.claim(AuthenticatedUser.CLAIM_STUDENT_ID, principal.getStudentId());
+            }
+        }
+        return builder
+                .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * 验签并解析 token，无效、过期、已注销或签发后用户声明已变更时返回 null。
+     * 验签成功的声明按 token 哈希缓存到过期为止，同一 token 的后续请求不再重复验签。
+     */
+    public Claims parseClaims(String authToken) {
+        if (!StringUtils.hasText(authToken)) {
+            logger.error("JWT claims string is empty.");
+            return null;
+        }
+        Claims claims = verifiedTokenCache.get(authToken);
+        if (claims == null) {
+            claims = verify(authToken);
+            if (claims == null) {
+                return null;
+            }
+            verifiedTokenCache.put(authToken, claims);
+        }
+        // 先查布隆过滤器，未注销的 token 通常在这里直接通过
+        if (tokenRevocationService.isRevoked(tokenIdOf(claims, authToken))) {
+            logger.debug("Revoked JWT token for {}", claims.getSubject());
+            return null;
+        }
+        // 角色、用户名或关联学生变更后，此前签发的 token 中的声明已过时
+        if (tokenRevocationService.isIssuedBeforeUserRevocation(
+                claims.get(AuthenticatedUser.CLAIM_USER_ID, Long.class), issuedAtMillisOf(claims))) {
+            logger.debug("JWT token for {} issued before its claims changed", claims.getSubject());
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 注销 token：记入吊销列表直到其过期。token 无效时返回 false
+     */
+    public boolean revokeToken(String authToken) {
+        Claims claims = parseClaims(authToken);
+        if (claims == null) {
+            return false;
+        }
+        tokenRevocationService.revoke(tokenIdOf(claims, authToken),
+                claims.get(AuthenticatedUser.CLAIM_USER_ID, Long.class), claims.getExpiration().getTime());
+        verifiedTokenCache.remove(authToken);
+        return true;
+    }
 
-        return claims.getSubject();
+    // 此前签发的 token 没有 iatMs，退回到秒级的 iat（同一秒内的吊销按吊销处理）
+    private static Long issuedAtMillisOf(Claims claims) {
+        Long millis = claims.get(CLAIM_ISSUED_AT_MILLIS, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null;
     }
 
-    public boolean validateToken(String authToken) {
+    // 旧版 token 没有 jti，用 token 的哈希代替
+    private static String tokenIdOf(Claims claims, String authToken) {
+        return claims.getId() != null ? claims.getId() : "sha256:" + VerifiedTokenCache.keyOf(authToken);
+    }
+
+    private Claims verify(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
         } catch (SecurityException ex) {
             logger.error("Invalid JWT signature", ex);
         } catch (MalformedJwtException ex) {
@@ -82,7 +160,19 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty.", ex);
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * 由已验签的声明构建当前用户；旧版 token 不含用户ID声明时按用户名查询（经 PrincipalCache）
+     */
+    public AuthenticatedUser getAuthenticatedUser(Claims claims) {
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+        if (principal != null) {
+            return principal;
+        }
+        User user = principalCache.findUser(claims.getSubject());
+        return user != null ? AuthenticatedUser.of(user) : null;
     }
 
     public String getJwtFromRequest(HttpServletRequest request) {
@@ -92,13 +182,4 @@ public class JwtTokenProvider {
         }
         return null;
     }
-
-    public Long getUserIdFromJWT(String token) {
-        String username = getUsernameFromJWT(token);
-        User user = userMapper.findByUsername(username);
-        if (user != null) {
-            return user.getId();
-        }
-        return null;
-    }
 }
@@ -0,0 +1,103 @@
+package com.ikunmanager.security;
+
+import com.ikunmanager.common.ServiceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 密码校验（BCrypt）专用的有界线程池。
+ * <p>
+ * 登录高峰时 BCrypt 会占满 CPU，放在 Tomcat 请求线程上执行会拖慢其它所有接口。
+ * 这里线程数默认等于 CPU 核数，排队数有上限；队列满时立即以 503 + Retry-After 拒绝，
+ * 而不是让请求线程越积越多。
+ */
+@Component
+public class PasswordHashExecutor {
+
+    @Value("${app.auth.hash-threads:0}")
+    private int threads;
+
+    @Value("${app.auth.hash-queue-size:200}")
+    private int queueSize;
+
+    @Value("${app.auth.hash-retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在哈希线程池中执行任务；队列已满时抛出 ServiceBusyException（503）
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                waitNanos.add(startedAt - queuedAt);
+                try {
+                    return task.get();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                    completed.increment();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("登录请求过多，请稍后重试", retryAfterSeconds);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long done = completed.sum();
+        stats.put("threads", executor.getPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueSize);
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgWaitMillis", done == 0 ? 0.0 : waitNanos.sum() / 1e6 / done);
+        stats.put("avgHashMillis", done == 0 ? 0.0 : hashNanos.sum() / 1e6 / done);
+        stats.put("maxHashMillis", maxHashNanos.get() / 1e6);
+        return stats;
+    }
+}
@@ -0,0 +1,136 @@
+package com.ikunmanager.security;
+
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.mapper.UserMapper;
+import com.ikunmanager.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按用户名缓存已登录用户，供 JWT 过滤器（UserDetails）和各控制器（User）共用，
+ * 稳定状态下的 API 请求不再查询 user 表。
+ * <p>
+ * 条目在 TTL 到期后重新加载；用户资料、密码或关联学生变更时由对应服务在事务提交后失效。
+ * 返回的 User 为共享实例，调用方不要修改。
+ */
+@Component
+public class PrincipalCache {
+
+    @Value("${app.auth.principal-cache-size:10000}")
+    private int maxEntries;
+
+    @Value("${app.auth.principal-cache-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 按用户名查找用户，不存在时返回 null（不缓存不存在的用户名）
+     */
+    public User findUser(String username) {
+        Entry entry = find(username);
+        return entry != null ? entry.user : null;
+    }
+
+    /**
+     * 按用户名构建 Spring Security 的 UserDetails，不存在时返回 null。
+     * 每次返回新对象：认证成功后 ProviderManager 会擦除其中的密码，不能共享。
+     */
+    public UserDetails findUserDetails(String username) {
+        Entry entry = find(username);
+        return entry != null
+                ? new org.springframework.security.core.userdetails.User(
+                        entry.user.getUsername(), entry.user.getPassword(), new ArrayList<>())
+                : null;
+    }
+
+    /**
+     * 用户资料或密码变更后失效（事务提交后生效）
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            version.incrementAndGet();
+            entries.values().removeIf(entry -> userId.equals(entry.user.getId()));
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    private Entry find(String username) {
+        if (username == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.expiresAt > now) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        long loadedAt = version.get();
+        User user = userMapper.findByUsername(username);
+        if (user == null) {
+            entries.remove(username);
+            return null;
+        }
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entry = new Entry(user, now + ttlSeconds * 1000);
+        // 查询期间发生过失效时不写入，避免把刚失效的旧数据放回缓存
+        if (version.get() == loadedAt) {
+            entries.put(username, entry);
+        }
+        return entry;
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -67,6 +67,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .and()
             .authorizeRequests()
             .antMatchers("/api/auth/**", "/api/config/regex", "/uploads/**").permitAll()
+            // 运行时指标只对管理员开放（方法级 @PreAuthorize 未启用，需在此处限制）
+            .antMatchers("/api/metrics", "/api/metrics/**").hasRole("ADMIN")
             .anyRequest().authenticated();
             
         // Add our custom JWT security filter
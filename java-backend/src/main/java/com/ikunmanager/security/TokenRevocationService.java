@@ -0,0 +1,211 @@
+package com.ikunmanager.security;
+
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.mapper.RevokedTokenMapper;
+import com.ikunmanager.model.RevokedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * token 吊销列表。
+ * <p>
+ * 吊销记录持久化在 revoked_token 表，内存中保存一份精确集合（tokenId -> 过期时间）和一个布隆过滤器。
+ * 每个请求先查布隆过滤器，绝大多数未吊销的 token 在这里就返回，只有命中时才查精确集合。
+ * 后台线程定期删除已过期的记录并从数据库重新加载、重建过滤器，多实例部署时其它实例的注销也在此时同步过来。
+ * <p>
+ * 用户的角色、用户名或关联学生变更时，token 中已签名的声明随之过时：{@link #revokeUserTokens} 记录一条
+ * “user:用户ID@时间”的吊销记录，该用户在此之前签发的 token 全部失效，需要重新登录；记录保留一个 token 有效期。
+ */
+@Component
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Value("${app.jwt.revocation-expected-size:100000}")
+    private int expectedSize;
+
+    @Value("${app.jwt.revocation-false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${app.jwt.revocation-sweep-minutes:10}")
+    private long sweepMinutes;
+
+    @Value("${app.jwtExpirationInMs:86400000}")
+    private long tokenLifetimeMillis;
+
+    private static final String USER_PREFIX = "user:";
+
+    @Autowired
+    private RevokedTokenMapper revokedTokenMapper;
+
+    private volatile State state;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomPositives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "token-revocation-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 在 Web 容器开始接收请求之前加载，避免启动窗口内已注销的 token 仍可使用
+    @PostConstruct
+    public void init() {
+        reload();
+        executor.scheduleWithFixedDelay(this::sweep, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * token 是否已被吊销；tokenId 为 null 时视为未吊销
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        checks.increment();
+        State current = state;
+        if (!current.bloom.mightContain(tokenId)) {
+            return false;
+        }
+        bloomPositives.increment();
+        if (current.revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * 吊销 token，保留到 token 过期为止
+     */
+    public synchronized void revoke(String tokenId, Long userId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return; // 已过期的 token 本身就无法通过验签
+        }
+        RevokedToken record = new RevokedToken();
+        record.setTokenId(tokenId);
+        record.setUserId(userId);
+        record.setExpireTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault()));
+        revokedTokenMapper.insert(record);
+
+        State current = state;
+        current.revoked.put(tokenId, expiresAtMillis);
+        current.bloom.add(tokenId);
+    }
+
+    /**
+     * 该用户在签发时间之后有过 revokeUserTokens 时返回 true；userId 为 null（旧版 token）时返回 false
+     *
+     * @param issuedAtMillis token 的签发时间（毫秒），未知时按吊销处理
+     */
+    public boolean isIssuedBeforeUserRevocation(Long userId, Long issuedAtMillis) {
+        if (userId == null) {
+            return false;
+        }
+        Long cutoff = state.userCutoffs.get(userId);
+        // 吊销之后（哪怕同一秒内）重新登录签发的 token 不受影响
+        return cutoff != null && (issuedAtMillis == null || issuedAtMillis < cutoff);
+    }
+
+    /**
+     * 吊销该用户此前签发的所有 token（事务提交后生效）
+     */
+    public void revokeUserTokens(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> revokeUserTokensNow(userId));
+    }
+
+    private synchronized void revokeUserTokensNow(Long userId) {
+        long cutoff = System.currentTimeMillis();
+        RevokedToken record = new RevokedToken();
+        record.setTokenId(USER_PREFIX + userId + "@" + cutoff);
+        record.setUserId(userId);
+        record.setExpireTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(cutoff + tokenLifetimeMillis), ZoneId.systemDefault()));
+        revokedTokenMapper.insert(record);
+        state.userCutoffs.merge(userId, cutoff, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        State current = state;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("revoked", current.revoked.size());
+        stats.put("revokedUsers", current.userCutoffs.size());
+        stats.put("bloomBits", current.bloom.bitCount());
+        stats.put("bloomHashes", current.bloom.hashCount());
+        stats.put("checks", checks.sum());
+        stats.put("bloomPositives", bloomPositives.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        return stats;
+    }
+
+    private void sweep() {
+        try {
+            int deleted = revokedTokenMapper.deleteExpired(LocalDateTime.now());
+            reload();
+            if (deleted > 0) {
+                log.info("Swept {} expired revoked tokens", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Revoked token sweep failed", e);
+        }
+    }
+
+    // 与 revoke 互斥：避免重新加载期间新增的吊销记录在替换时丢失
+    private synchronized void reload() {
+        List<RevokedToken> active = revokedTokenMapper.findActive(LocalDateTime.now());
+        BloomFilter bloom = new BloomFilter(Math.max(expectedSize, active.size() * 2), falsePositiveRate);
+        ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+        for (RevokedToken token : active) {
+            String tokenId = token.getTokenId();
+            if (tokenId.startsWith(USER_PREFIX) && token.getUserId() != null) {
+                long cutoff = Long.parseLong(tokenId.substring(tokenId.indexOf('@') + 1));
+                userCutoffs.merge(token.getUserId(), cutoff, Math::max);
+                continue;
+            }
+            long expiresAt = token.getExpireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            revoked.put(token.getTokenId(), expiresAt);
+            bloom.add(token.getTokenId());
+        }
+        state = new State(bloom, revoked, userCutoffs);
+    }
+
+    private static final class State {
+        private final BloomFilter bloom;
+        private final ConcurrentHashMap<String, Long> revoked;
+        /** 用户ID -> 最近一次 revokeUserTokens 的时间，不晚于此时签发的 token 无效 */
+        private final ConcurrentHashMap<Long, Long> userCutoffs;
+
+        State(BloomFilter bloom, ConcurrentHashMap<String, Long> revoked, ConcurrentHashMap<Long, Long> userCutoffs) {
+            this.bloom = bloom;
+            this.revoked = revoked;
+            this.userCutoffs = userCutoffs;
+        }
+    }
+}
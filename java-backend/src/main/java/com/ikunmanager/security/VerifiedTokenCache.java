@@ -0,0 +1,126 @@
+package com.ikunmanager.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已验签 JWT 的声明缓存。
+ * <p>
+ * 同一会话的后续请求携带同一个 token，命中缓存即可跳过 HS512 验签。键为 token 的 SHA-256，
+ * 不在内存中保存 token 原文；条目在 token 过期时失效。容量达到上限时先清理已过期的条目，
+ * 仍然不够再淘汰最早过期的约十分之一。
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 已验签且未过期时返回声明，否则返回 null
+     */
+    public Claims get(String token) {
+        String key = keyOf(token);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.claims;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return; // 不缓存永不过期的 token
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(keyOf(token), new Entry(claims, claims.getExpiration().getTime()));
+    }
+
+    /**
+     * 移除某个 token 的缓存条目（如注销后）
+     */
+    public void remove(String token) {
+        entries.remove(keyOf(token));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        if (toRemove <= 0) {
+            return;
+        }
+        // 只在容量满时执行，排序一次的开销摊到之后约 maxEntries / 10 次 put 上
+        List<Map.Entry<String, Entry>> byExpiry = new ArrayList<>(entries.entrySet());
+        byExpiry.sort(Comparator.comparingLong(e -> e.getValue().expiresAt));
+        for (int i = 0; i < toRemove && i < byExpiry.size(); i++) {
+            Map.Entry<String, Entry> e = byExpiry.get(i);
+            if (entries.remove(e.getKey(), e.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    static String keyOf(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class Entry {
+        private final Claims claims;
+        private final long expiresAt;
+
+        Entry(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
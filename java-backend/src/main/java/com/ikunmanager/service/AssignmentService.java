@@ -4,6 +4,7 @@ import com.ikunmanager.common.ApiResponse;
 import com.ikunmanager.dto.AssignmentCreateRequest;
 import com.ikunmanager.dto.AssignmentResponse;
 import com.ikunmanager.entity.Assignment;
+import com.ikunmanager.security.AuthenticatedUser;
 import java.util.List;
 
 public interface AssignmentService {
@@ -13,5 +14,5 @@ public interface AssignmentService {
     ApiResponse<AssignmentResponse> getAssignmentById(Long id);
     ApiResponse<List<AssignmentResponse>> getAllAssignments();
     ApiResponse<List<AssignmentResponse>> getAssignmentsByTeacherId(Long teacherId);
-    ApiResponse<List<AssignmentResponse>> getAssignmentsByStudentId(Long studentId);
+    ApiResponse<List<AssignmentResponse>> getAssignmentsForStudent(AuthenticatedUser student);
 } 
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.CacheUtils;
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.dto.ScoreRankingRow;
+import com.ikunmanager.mapper.ScoreMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 考试排名引擎：按考试缓存 {@link ExamRankingTable}。
+ * <p>
+ * 每场考试只在首次查询时读一次 student_score 构建排名表，之后的排名/平均分查询都在内存中完成。
+ * 成绩写入（新增、修改、删除）后需调用 {@link #invalidate(Long)}，下一次查询时重建。
+ */
+@Component
+public class ExamRankingEngine {
+
+    @Autowired
+    private ScoreMapper scoreMapper;
+
+    @Value("${app.ranking.max-cached-exams:64}")
+    private int maxCachedExams;
+
+    private final ConcurrentHashMap<Long, ExamRankingTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * 获取考试的排名表，不存在时从数据库构建。同一考试的并发请求只会构建一次。
+     */
+    public ExamRankingTable getTable(Long examId) {
+        ExamRankingTable table = tables.get(examId);
+        if (table == null) {
+            table = tables.computeIfAbsent(examId, this::load);
+            CacheUtils.evictLeastRecentlyUsed(tables, maxCachedExams, ExamRankingTable::lastAccess);
+        }
+        table.touch();
+        return table;
+    }
+
+    /**
+     * 使某场考试的排名表失效。处于事务中时在提交后才真正移除。
+     */
+    public void invalidate(Long examId) {
+        if (examId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> tables.remove(examId));
+    }
+
+    /**
+     * 清空全部排名表，用于学生调班、删除学生等会影响所有考试的变更。
+     */
+    public void invalidateAll() {
+        TransactionHooks.afterCommit(tables::clear);
+    }
+
+    private ExamRankingTable load(Long examId) {
+        ExamRankingTable.Builder builder = new ExamRankingTable.Builder();
+        scoreMapper.findRankingRowsByExam(examId, context -> {
+            ScoreRankingRow row = context.getResultObject();
+            if (row.getScore() != null && row.getClassId() != null) {
+                builder.add(row.getStudentId(), row.getClassId(), row.getSubject(),
+                        ExamRankingTable.toTenths(row.getScore()));
+            }
+        });
+        return builder.build();
+    }
+}
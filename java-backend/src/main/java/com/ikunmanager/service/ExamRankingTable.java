@@ -0,0 +1,281 @@
+package com.ikunmanager.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单次考试的只读排名表。
+ * <p>
+ * 分数统一以“十分之一分”为单位存成 int（student_score.score 为 decimal(5,1)），
+ * 这样总分求和与并列判断都是精确的。每个班级×科目、班级总分、年级总分
+ * 各自保存一份升序数组，排名 = 1 + 严格高于该分数的人数，通过二分查找 O(log n) 得到。
+ * 实例构建完成后不再修改，可被多个线程并发读取。
+ */
+public final class ExamRankingTable {
+
+    /** 缺考/无成绩 */
+    public static final int ABSENT = Integer.MIN_VALUE;
+
+    private final long[] studentIds;
+    private final int[] studentClass;
+    private final long[] classIds;
+    private final String[] subjects;
+    private final int[][] scores;
+    private final int[] totals;
+
+    private final int[][] classSubjectSorted;
+    private final int[][] classTotalSorted;
+    private final int[] gradeTotalSorted;
+
+    private volatile long lastAccess = System.nanoTime();
+
+    private ExamRankingTable(long[] studentIds, int[] studentClass, long[] classIds,
+                             String[] subjects, int[][] scores, int[] totals,
+                             int[][] classSubjectSorted, int[][] classTotalSorted, int[] gradeTotalSorted) {
+        this.studentIds = studentIds;
+        this.studentClass = studentClass;
+        this.classIds = classIds;
+        this.subjects = subjects;
+        this.scores = scores;
+        this.totals = totals;
+        this.classSubjectSorted = classSubjectSorted;
+        this.classTotalSorted = classTotalSorted;
+        this.gradeTotalSorted = gradeTotalSorted;
+    }
+
+    /** 学生在表中的下标，不存在返回 -1 */
+    public int indexOf(long studentId) {
+        int idx = Arrays.binarySearch(studentIds, studentId);
+        return idx >= 0 ? idx : -1;
+    }
+
+    /** 学生所在班级的下标 */
+    public int classOf(int student) {
+        return studentClass[student];
+    }
+
+    /** 班级在表中的下标，不存在返回 -1 */
+    public int classIndexOf(long classId) {
+        int idx = Arrays.binarySearch(classIds, classId);
+        return idx >= 0 ? idx : -1;
+    }
+
+    public int subjectCount() {
+        return subjects.length;
+    }
+
+    /** 科目按名称升序排列 */
+    public String subjectAt(int subject) {
+        return subjects[subject];
+    }
+
+    public boolean hasScore(int student, int subject) {
+        return scores[subject][student] != ABSENT;
+    }
+
+    public double score(int student, int subject) {
+        return scores[subject][student] / 10.0;
+    }
+
+    public double total(int student) {
+        return totals[student] / 10.0;
+    }
+
+    /** 单科班级排名；该科无成绩时返回 -1 */
+    public int classRank(int student, int subject) {
+        int value = scores[subject][student];
+        if (value == ABSENT) {
+            return -1;
+        }
+        return rankIn(classSubjectSorted[studentClass[student] * subjects.length + subject], value);
+    }
+
+    public int classTotalRank(int student) {
+        return rankIn(classTotalSorted[studentClass[student]], totals[student]);
+    }
+
+    public int gradeTotalRank(int student) {
+        return rankIn(gradeTotalSorted, totals[student]);
+    }
+
+    /** 班级单科平均分；该班该科无成绩时返回 NaN */
+    public double classAverage(int classIdx, int subject) {
+        return average(classSubjectSorted[classIdx * subjects.length + subject]);
+    }
+
+    /** 班级总分平均分；班级无成绩时返回 NaN */
+    public double classAverageTotal(int classIdx) {
+        return average(classTotalSorted[classIdx]);
+    }
+
+    long lastAccess() {
+        return lastAccess;
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    /**
+     * 在升序数组中计算 value 的竞赛排名：1 + 严格大于 value 的元素个数。
+     */
+    static int rankIn(int[] ascending, int value) {
+        int lo = 0;
+        int hi = ascending.length;
+        // upper bound: 第一个 > value 的位置
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ascending[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return ascending.length - lo + 1;
+    }
+
+    private static double average(int[] values) {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        long sum = 0;
+        for (int v : values) {
+            sum += v;
+        }
+        return sum / 10.0 / values.length;
+    }
+
+    public static int toTenths(BigDecimal score) {
+        return score.movePointRight(1).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    /**
+     * 逐行累积成绩并一次性生成排名表。行的顺序无要求。
+     */
+    public static final class Builder {
+        private long[] rowStudent = new long[1024];
+        private long[] rowClass = new long[1024];
+        private int[] rowSubject = new int[1024];
+        private int[] rowScore = new int[1024];
+        private int size;
+        private final Map<String, Integer> subjectIndex = new HashMap<>();
+        private final List<String> subjectNames = new ArrayList<>();
+
+        public Builder add(long studentId, long classId, String subject, int scoreTenths) {
+            if (size == rowStudent.length) {
+                int capacity = size * 2;
+                rowStudent = Arrays.copyOf(rowStudent, capacity);
+                rowClass = Arrays.copyOf(rowClass, capacity);
+                rowSubject = Arrays.copyOf(rowSubject, capacity);
+                rowScore = Arrays.copyOf(rowScore, capacity);
+            }
+            Integer sub = subjectIndex.get(subject);
+            if (sub == null) {
+                sub = subjectNames.size();
+                subjectIndex.put(subject, sub);
+                subjectNames.add(subject);
+            }
+            rowStudent[size] = studentId;
+            rowClass[size] = classId;
+            rowSubject[size] = sub;
+            rowScore[size] = scoreTenths;
+            size++;
+            return this;
+        }
+
+        public ExamRankingTable build() {
+            // 科目按名称排序，便于二分查找
+            String[] subjects = subjectNames.toArray(new String[0]);
+            Arrays.sort(subjects);
+            int subjectCount = subjects.length;
+            int[] subjectRemap = new int[subjectCount];
+            for (int i = 0; i < subjectCount; i++) {
+                subjectRemap[i] = Arrays.binarySearch(subjects, subjectNames.get(i));
+            }
+
+            long[] studentIds = distinctSorted(rowStudent, size);
+            long[] classIds = distinctSorted(rowClass, size);
+            int studentCount = studentIds.length;
+            int classCount = classIds.length;
+
+            int[] studentClass = new int[studentCount];
+            int[][] scores = new int[subjectCount][studentCount];
+            for (int[] column : scores) {
+                Arrays.fill(column, ABSENT);
+            }
+            for (int r = 0; r < size; r++) {
+                int student = Arrays.binarySearch(studentIds, rowStudent[r]);
+                studentClass[student] = Arrays.binarySearch(classIds, rowClass[r]);
+                scores[subjectRemap[rowSubject[r]]][student] = rowScore[r];
+            }
+
+            int[] totals = new int[studentCount];
+            int[] classSizes = new int[classCount];
+            int[] classSubjectCounts = new int[classCount * subjectCount];
+            for (int s = 0; s < studentCount; s++) {
+                int cls = studentClass[s];
+                classSizes[cls]++;
+                int total = 0;
+                for (int sub = 0; sub < subjectCount; sub++) {
+                    int value = scores[sub][s];
+                    if (value != ABSENT) {
+                        total += value;
+                        classSubjectCounts[cls * subjectCount + sub]++;
+                    }
+                }
+                totals[s] = total;
+            }
+
+            int[][] classSubjectSorted = new int[classCount * subjectCount][];
+            int[] classSubjectFill = new int[classCount * subjectCount];
+            for (int i = 0; i < classSubjectSorted.length; i++) {
+                classSubjectSorted[i] = new int[classSubjectCounts[i]];
+            }
+            int[][] classTotalSorted = new int[classCount][];
+            int[] classTotalFill = new int[classCount];
+            for (int c = 0; c < classCount; c++) {
+                classTotalSorted[c] = new int[classSizes[c]];
+            }
+
+            for (int s = 0; s < studentCount; s++) {
+                int cls = studentClass[s];
+                for (int sub = 0; sub < subjectCount; sub++) {
+                    int value = scores[sub][s];
+                    if (value != ABSENT) {
+                        int cell = cls * subjectCount + sub;
+                        classSubjectSorted[cell][classSubjectFill[cell]++] = value;
+                    }
+                }
+                classTotalSorted[cls][classTotalFill[cls]++] = totals[s];
+            }
+            for (int[] values : classSubjectSorted) {
+                Arrays.sort(values);
+            }
+            for (int[] values : classTotalSorted) {
+                Arrays.sort(values);
+            }
+            int[] gradeTotalSorted = totals.clone();
+            Arrays.sort(gradeTotalSorted);
+
+            return new ExamRankingTable(studentIds, studentClass, classIds, subjects, scores, totals,
+                    classSubjectSorted, classTotalSorted, gradeTotalSorted);
+        }
+
+        private static long[] distinctSorted(long[] values, int length) {
+            long[] copy = Arrays.copyOf(values, length);
+            Arrays.sort(copy);
+            int unique = 0;
+            for (int i = 0; i < copy.length; i++) {
+                if (i == 0 || copy[i] != copy[i - 1]) {
+                    copy[unique++] = copy[i];
+                }
+            }
+            return Arrays.copyOf(copy, unique);
+        }
+    }
+}
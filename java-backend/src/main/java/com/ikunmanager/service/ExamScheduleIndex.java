@@ -0,0 +1,242 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.dto.ExamConflict;
+import com.ikunmanager.dto.ExamScheduleRow;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.model.Exam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * 班级考试时间索引，用于检测同一班级的考试时间重叠（考试时间段为 exam_date 起 duration 分钟）。
+ * <p>
+ * 每个班级的考试按开始时间存入有序集合，并记录该班级出现过的最长考试时长 D。
+ * 与 [s, e) 重叠的考试开始时间一定落在 (s - D, e] 内，因此一次检查只需 O(log n) 定位，
+ * 再逐个核对这一小段候选。启动时从 exam_class_link 加载一次，之后随考试增删改在事务提交后更新。
+ */
+@Component
+public class ExamScheduleIndex {
+
+    private static final Comparator<Slot> BY_START =
+            Comparator.comparing((Slot s) -> s.start).thenComparingLong(s -> s.examId);
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    private final Map<Long, ClassSchedule> byClass = new HashMap<>();
+    private final Map<Long, Slot> slotsByExam = new HashMap<>();
+    private final Map<Long, List<Long>> classesByExam = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ExamScheduleRow> rows = examMapper.findExamClassSchedule();
+        synchronized (this) {
+            for (ExamScheduleRow row : rows) {
+                if (row.getExamDate() == null) {
+                    continue;
+                }
+                Slot slot = slotsByExam.computeIfAbsent(row.getExamId(),
+                        id -> new Slot(id, row.getExamName(), row.getExamDate(), row.getDuration()));
+                add(slot, row.getClassId());
+            }
+        }
+    }
+
+    /**
+     * 与给定考试时间段重叠的已有考试（排除 examId 本身），每个班级每场冲突考试一条
+     */
+    public synchronized List<ExamConflict> findConflicts(Long examId, String examName, LocalDateTime examDate,
+                                                         Integer duration, Collection<Long> classIds) {
+        List<ExamConflict> conflicts = new ArrayList<>();
+        if (examDate == null || classIds == null) {
+            return conflicts;
+        }
+        Slot candidate = new Slot(examId != null ? examId : -1L, examName, examDate, duration);
+        for (Long classId : classIds) {
+            ClassSchedule schedule = byClass.get(classId);
+            if (schedule == null) {
+                continue;
+            }
+            for (Slot other : schedule.candidates(candidate.start, candidate.end)) {
+                if (other.examId != candidate.examId && candidate.overlaps(other)) {
+                    conflicts.add(toConflict(classId, candidate, other));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 与 findConflicts 相同的判定，但候选来自数据库查询结果（ExamMapper.findClassScheduleBetween），
+     * 供加锁后复查尚未进入索引的已提交考试
+     */
+    static List<ExamConflict> conflictsAmong(Long examId, String examName, LocalDateTime examDate,
+                                             Integer duration, List<ExamScheduleRow> rows) {
+        List<ExamConflict> conflicts = new ArrayList<>();
+        if (examDate == null) {
+            return conflicts;
+        }
+        Slot candidate = new Slot(examId != null ? examId : -1L, examName, examDate, duration);
+        for (ExamScheduleRow row : rows) {
+            Slot other = new Slot(row.getExamId(), row.getExamName(), row.getExamDate(), row.getDuration());
+            if (other.examId != candidate.examId && candidate.overlaps(other)) {
+                conflicts.add(toConflict(row.getClassId(), candidate, other));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * 一次扫描列出 [from, to] 内所有班级的考试冲突；from / to 为空表示不限
+     */
+    public synchronized List<ExamConflict> findAllConflicts(LocalDateTime from, LocalDateTime to) {
+        List<ExamConflict> conflicts = new ArrayList<>();
+        for (Map.Entry<Long, ClassSchedule> entry : byClass.entrySet()) {
+            NavigableSet<Slot> slots = entry.getValue().slots;
+            if (from != null) {
+                slots = slots.tailSet(probe(from.minusMinutes(entry.getValue().maxMinutes)), true);
+            }
+            if (to != null) {
+                slots = slots.headSet(probe(to.plusNanos(1)), false);
+            }
+            // 按开始时间扫描，active 中只保留尚未结束的考试
+            List<Slot> active = new ArrayList<>();
+            for (Slot slot : slots) {
+                Iterator<Slot> it = active.iterator();
+                while (it.hasNext()) {
+                    Slot previous = it.next();
+                    if (previous.overlaps(slot)) {
+                        if (overlapWithin(previous, slot, from, to)) {
+                            conflicts.add(toConflict(entry.getKey(), previous, slot));
+                        }
+                    } else {
+                        it.remove();
+                    }
+                }
+                active.add(slot);
+            }
+        }
+        conflicts.sort(Comparator.comparing(ExamConflict::getExamStart)
+                .thenComparing(ExamConflict::getClassId)
+                .thenComparing(ExamConflict::getExamId));
+        return conflicts;
+    }
+
+    /**
+     * 考试新增或修改后更新索引（事务提交后生效），exam 需带有 classIds
+     */
+    public void examChanged(Exam exam) {
+        Slot slot = exam.getExamDate() != null
+                ? new Slot(exam.getId(), exam.getExamName(), exam.getExamDate(), exam.getDuration())
+                : null;
+        List<Long> classIds = exam.getClassIds() != null ? new ArrayList<>(exam.getClassIds()) : new ArrayList<>();
+        TransactionHooks.afterCommit(() -> put(exam.getId(), slot, classIds));
+    }
+
+    public void examDeleted(Long examId) {
+        TransactionHooks.afterCommit(() -> put(examId, null, null));
+    }
+
+    synchronized void put(Long examId, Slot slot, List<Long> classIds) {
+        Slot previous = slotsByExam.remove(examId);
+        List<Long> previousClasses = classesByExam.remove(examId);
+        if (previous != null && previousClasses != null) {
+            for (Long classId : previousClasses) {
+                ClassSchedule schedule = byClass.get(classId);
+                if (schedule != null) {
+                    schedule.slots.remove(previous);
+                    if (schedule.slots.isEmpty()) {
+                        byClass.remove(classId);
+                    }
+                }
+            }
+        }
+        if (slot == null || classIds == null) {
+            return;
+        }
+        slotsByExam.put(examId, slot);
+        for (Long classId : classIds) {
+            add(slot, classId);
+        }
+    }
+
+    private void add(Slot slot, Long classId) {
+        ClassSchedule schedule = byClass.computeIfAbsent(classId, k -> new ClassSchedule());
+        schedule.slots.add(slot);
+        schedule.maxMinutes = Math.max(schedule.maxMinutes, slot.minutes);
+        classesByExam.computeIfAbsent(slot.examId, k -> new ArrayList<>()).add(classId);
+    }
+
+    // 两场考试的重叠部分是否落在 [from, to] 内
+    private static boolean overlapWithin(Slot a, Slot b, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime overlapStart = a.start.isAfter(b.start) ? a.start : b.start;
+        LocalDateTime overlapEnd = a.end.isBefore(b.end) ? a.end : b.end;
+        return (from == null || overlapEnd.isAfter(from) || !overlapStart.isBefore(from))
+                && (to == null || !overlapStart.isAfter(to));
+    }
+
+    // 用于有序集合范围查询的哨兵：同一时间点上排在所有真实考试之前
+    private static Slot probe(LocalDateTime at) {
+        return new Slot(Long.MIN_VALUE, null, at, 0);
+    }
+
+    private static ExamConflict toConflict(Long classId, Slot exam, Slot other) {
+        ExamConflict conflict = new ExamConflict();
+        conflict.setClassId(classId);
+        conflict.setExamId(exam.examId);
+        conflict.setExamName(exam.examName);
+        conflict.setExamStart(exam.start);
+        conflict.setExamEnd(exam.end);
+        conflict.setOtherExamId(other.examId);
+        conflict.setOtherExamName(other.examName);
+        conflict.setOtherStart(other.start);
+        conflict.setOtherEnd(other.end);
+        return conflict;
+    }
+
+    private static final class ClassSchedule {
+        private final TreeSet<Slot> slots = new TreeSet<>(BY_START);
+        /** 该班级出现过的最长考试时长；删除考试时不回退，只会让候选范围略宽 */
+        private long maxMinutes;
+
+        // 开始时间落在 [start - maxMinutes, end] 内的考试，重叠的考试一定在其中
+        NavigableSet<Slot> candidates(LocalDateTime start, LocalDateTime end) {
+            return slots.subSet(probe(start.minusMinutes(maxMinutes)), true, probe(end.plusNanos(1)), false);
+        }
+    }
+
+    static final class Slot {
+        private final long examId;
+        private final String examName;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final long minutes;
+
+        Slot(long examId, String examName, LocalDateTime start, Integer duration) {
+            this.examId = examId;
+            this.examName = examName;
+            this.start = start;
+            this.minutes = duration != null ? Math.max(duration, 0) : 0;
+            this.end = start.plusMinutes(minutes);
+        }
+
+        // 时间段 [start, end) 相交；同一时刻开始的考试（包括时长为 0 的）也视为冲突
+        boolean overlaps(Slot other) {
+            return start.equals(other.start) || (start.isBefore(other.end) && other.start.isBefore(end));
+        }
+    }
+}
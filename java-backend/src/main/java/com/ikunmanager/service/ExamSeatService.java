@@ -0,0 +1,195 @@
+package com.ikunmanager.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.DownloadUtils;
+import com.ikunmanager.dto.ExamSeatRow;
+import com.ikunmanager.dto.SeatCandidateRow;
+import com.ikunmanager.dto.SeatPlanRequest;
+import com.ikunmanager.dto.SeatPlanSummary;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.mapper.ExamSeatMapper;
+import com.ikunmanager.model.Exam;
+import com.ikunmanager.model.ExamSeat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 考场座位安排：生成并保存座位表，按考场导出。
+ */
+@Service
+public class ExamSeatService {
+
+    /** 每条 INSERT 写入的座位数 */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final List<List<String>> EXPORT_HEAD = Arrays.asList(
+            List.of("座位号"), List.of("行"), List.of("列"), List.of("学号"), List.of("姓名"), List.of("班级"));
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private ExamSeatMapper examSeatMapper;
+
+    /**
+     * 为考试关联班级的全部学生重新生成座位表，覆盖已有安排
+     */
+    @Transactional
+    public SeatPlanSummary allocateSeats(Long examId, SeatPlanRequest request) {
+        requireExam(examId);
+        List<SeatPlanRequest.Room> rooms = request != null ? request.getRooms() : null;
+        if (rooms == null || rooms.isEmpty()) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "请至少提供一个考场");
+        }
+        if (rooms.size() > SeatAllocator.MAX_TOTAL_SEATS) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "考场数量过多");
+        }
+        int[] roomRows = new int[rooms.size()];
+        int[] roomCols = new int[rooms.size()];
+        long totalSeats = 0;
+        for (int r = 0; r < rooms.size(); r++) {
+            SeatPlanRequest.Room room = rooms.get(r);
+            if (room.getRows() == null || room.getCols() == null || room.getRows() <= 0 || room.getCols() <= 0) {
+                throw new CustomException(HttpStatus.BAD_REQUEST.value(), "考场 " + roomName(room, r) + " 的行数和列数必须大于 0");
+            }
+            if (room.getRows() > SeatAllocator.MAX_ROWS || room.getCols() > SeatAllocator.MAX_COLS) {
+                throw new CustomException(HttpStatus.BAD_REQUEST.value(), "考场 " + roomName(room, r) + " 的行数不能超过 "
+                        + SeatAllocator.MAX_ROWS + "，列数不能超过 " + SeatAllocator.MAX_COLS);
+            }
+            roomRows[r] = room.getRows();
+            roomCols[r] = room.getCols();
+            totalSeats += (long) roomRows[r] * roomCols[r];
+        }
+        if (totalSeats > SeatAllocator.MAX_TOTAL_SEATS) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "座位总数 " + totalSeats + " 超过上限 " + SeatAllocator.MAX_TOTAL_SEATS);
+        }
+
+        List<SeatCandidateRow> students = examSeatMapper.findSeatCandidates(examId);
+        if (students.isEmpty()) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "该考试没有关联任何学生");
+        }
+        Map<Long, Integer> classIndex = new HashMap<>();
+        int[] classOf = new int[students.size()];
+        for (int i = 0; i < classOf.length; i++) {
+            classOf[i] = classIndex.computeIfAbsent(students.get(i).getClassId(), k -> classIndex.size());
+        }
+
+        long startedAt = System.nanoTime();
+        SeatAllocator.Plan plan;
+        try {
+            plan = SeatAllocator.allocate(classOf, classIndex.size(), roomRows, roomCols);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        }
+        long allocationMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        examSeatMapper.deleteByExamId(examId);
+        List<ExamSeat> batch = new ArrayList<>(Math.min(students.size(), INSERT_BATCH_SIZE));
+        Set<Integer> usedRooms = new HashSet<>();
+        for (int i = 0; i < students.size(); i++) {
+            int room = plan.room(i);
+            usedRooms.add(room);
+            ExamSeat seat = new ExamSeat();
+            seat.setExamId(examId);
+            seat.setStudentId(students.get(i).getStudentId());
+            seat.setRoomNo(room + 1);
+            seat.setRoomName(roomName(rooms.get(room), room));
+            seat.setRowNo(plan.row(i) + 1);
+            seat.setColNo(plan.col(i) + 1);
+            seat.setSeatNo(plan.row(i) * roomCols[room] + plan.col(i) + 1);
+            batch.add(seat);
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                examSeatMapper.batchInsert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            examSeatMapper.batchInsert(batch);
+        }
+
+        SeatPlanSummary summary = new SeatPlanSummary();
+        summary.setExamId(examId);
+        summary.setStudentCount(students.size());
+        summary.setClassCount(classIndex.size());
+        summary.setRoomCount(rooms.size());
+        summary.setUsedRooms(usedRooms.size());
+        summary.setAdjacentSameClass(plan.adjacentSameClass());
+        summary.setAllocationMillis(allocationMillis);
+        return summary;
+    }
+
+    public List<ExamSeatRow> getSeats(Long examId) {
+        requireExam(examId);
+        return examSeatMapper.findSeatsByExamId(examId);
+    }
+
+    /**
+     * 导出座位表，每个考场一个工作表
+     */
+    public void exportSeats(Long examId, HttpServletResponse response) throws IOException {
+        Exam exam = requireExam(examId);
+        List<ExamSeatRow> seats = examSeatMapper.findSeatsByExamId(examId);
+
+        DownloadUtils.prepare(response, exam.getExamName() + "-座位表.xlsx", DownloadUtils.XLSX_CONTENT_TYPE);
+        ExcelWriter writer = EasyExcel.write(response.getOutputStream()).build();
+        Set<String> usedSheetNames = new HashSet<>();
+        List<List<Object>> rows = new ArrayList<>();
+        int sheetNo = 0;
+        for (int i = 0; i < seats.size(); i++) {
+            ExamSeatRow seat = seats.get(i);
+            rows.add(Arrays.asList(seat.getSeatNo(), seat.getRowNo(), seat.getColNo(),
+                    seat.getStudentNo(), seat.getStudentName(), seat.getClassName()));
+            boolean lastOfRoom = i + 1 == seats.size() || !Objects.equals(seats.get(i + 1).getRoomNo(), seat.getRoomNo());
+            if (lastOfRoom) {
+                String sheetName = uniqueSheetName(seat.getRoomName(), usedSheetNames);
+                writer.write(rows, EasyExcel.writerSheet(sheetNo++, sheetName).head(EXPORT_HEAD).build());
+                rows.clear();
+            }
+        }
+        if (sheetNo == 0) {
+            // 尚未生成座位表时输出一个只有表头的空工作簿
+            WriteSheet sheet = EasyExcel.writerSheet(0, "座位表").head(EXPORT_HEAD).build();
+            writer.write(rows, sheet);
+        }
+        writer.finish();
+    }
+
+    private Exam requireExam(Long examId) {
+        Exam exam = examMapper.findExamById(examId);
+        if (exam == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "Exam not found.");
+        }
+        return exam;
+    }
+
+    private static String roomName(SeatPlanRequest.Room room, int index) {
+        return room.getName() != null && !room.getName().trim().isEmpty() ? room.getName().trim() : "第" + (index + 1) + "考场";
+    }
+
+    private static String uniqueSheetName(String name, Set<String> used) {
+        String base = DownloadUtils.safeSheetName(name);
+        String sheetName = base;
+        int suffix = 2;
+        while (!used.add(sheetName)) {
+            String tail = "_" + suffix++;
+            sheetName = (base.length() + tail.length() > 31 ? base.substring(0, 31 - tail.length()) : base) + tail;
+        }
+        return sheetName;
+    }
+}
@@ -1,36 +1,82 @@
 package com.ikunmanager.service;
 
+import com.ikunmanager.common.BatchLoader;
+import com.ikunmanager.common.CacheUtils;
 import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.LinkDiff;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.dto.ExamConflict;
+import com.ikunmanager.dto.ExamItemAnalysis;
+import com.ikunmanager.dto.ExamLinkRow;
+import com.ikunmanager.dto.ExamSubjectRule;
+import com.ikunmanager.dto.ItemAnalysisRow;
 import com.ikunmanager.mapper.ClassMapper;
 import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.mapper.ScoreMapper;
 import com.ikunmanager.mapper.SubjectMapper;
 import com.ikunmanager.model.Exam;
 import com.ikunmanager.model.IkunClass;
+import com.ikunmanager.model.PurgeJob;
 import com.ikunmanager.model.Subject;
 import com.ikunmanager.dto.ExamStatsDTO;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class ExamService {
 
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     @Autowired
     private ExamMapper examMapper;
     @Autowired
     private ClassMapper classMapper;
     @Autowired
     private SubjectMapper subjectMapper;
+    @Autowired
+    private ExamRankingEngine examRankingEngine;
+    @Autowired
+    private ScoreStatsService scoreStatsService;
+    @Autowired
+    private ScoreMapper scoreMapper;
+    @Autowired
+    private ExamStatusScheduler examStatusScheduler;
+    @Autowired
+    private UpcomingExamIndex upcomingExamIndex;
+    @Autowired
+    private ExamScheduleIndex examScheduleIndex;
+    @Autowired
+    private PurgeJobService purgeJobService;
 
     public List<Exam> getAllExams(String examName, String examType) {
         List<Exam> exams = examMapper.findAllExams(examName, examType);
-        // Populate transient fields (classNames, subjectNames)
-        exams.forEach(this::populateTransientFields);
+        // Populate transient fields (classNames, classIds, subjectIds) for the whole list in two queries
+        populateTransientFields(exams);
+        return exams;
+    }
+
+    // 分页 / 排序的考试列表，只为当前页加载班级与科目
+    public List<Exam> findExamList(String examName, String examType, ListQuery query) {
+        List<Exam> exams = examMapper.findExamList(examName, examType, query);
+        populateTransientFields(exams);
         return exams;
     }
 
@@ -42,104 +88,192 @@ public class ExamService {
         return exam;
     }
 
+    /**
+     * @param allowConflict 为 false 时，若关联班级在同一时间段已有考试则拒绝（409）
+     */
     @Transactional
-    public Exam addExam(Exam exam) {
+    public Exam addExam(Exam exam, boolean allowConflict) {
         // Set initial status to 0 (未开始) if not provided
         if (exam.getStatus() == null) {
             exam.setStatus(0);
         }
 
+        List<Long> classIds = distinct(exam.getClassIds());
+        List<Long> subjectIds = distinct(exam.getSubjectIds());
+        lockClassIds(classIds);
+        checkScheduleConflicts(exam, classIds, allowConflict);
         // Save subjects as a comma-separated string based on subjectIds
-        if (exam.getSubjectIds() != null && !exam.getSubjectIds().isEmpty()) {
-            String subjectNames = exam.getSubjectIds().stream()
-                    .map(subjectMapper::findById)
-                    .map(Subject::getSubjectName)
-                    .collect(Collectors.joining(","));
-            exam.setSubjects(subjectNames);
+        if (!subjectIds.isEmpty()) {
+            exam.setSubjects(subjectNames(subjectIds));
         }
 
         examMapper.insertExam(exam);
 
-        // Insert exam-class links
-        if (exam.getClassIds() != null && !exam.getClassIds().isEmpty()) {
-            for (Long classId : exam.getClassIds()) {
-                IkunClass ikunClass = classMapper.findById(classId);
-                if (ikunClass == null) {
-                    throw new CustomException(HttpStatus.BAD_REQUEST.value(), "Class with ID " + classId + " not found.");
-                }
-                examMapper.insertExamClassLink(exam.getId(), classId);
-            }
+        // Insert exam-class links and exam-subject links (with default scores/weights) in one statement each
+        if (!classIds.isEmpty()) {
+            examMapper.batchInsertExamClassLinks(exam.getId(), classIds);
         }
-
-        // Insert exam-subject links (with default scores/weights)
-        if (exam.getSubjectIds() != null && !exam.getSubjectIds().isEmpty()) {
-            for (Long subjectId : exam.getSubjectIds()) {
-                Subject subject = subjectMapper.findById(subjectId);
-                if (subject == null) {
-                    throw new CustomException(HttpStatus.BAD_REQUEST.value(), "Subject with ID " + subjectId + " not found.");
-                }
-                examMapper.insertExamSubjectLink(exam.getId(), subjectId);
-            }
+        if (!subjectIds.isEmpty()) {
+            examMapper.batchInsertExamSubjectLinks(exam.getId(), subjectIds);
         }
 
+        examStatusScheduler.reschedule(exam);
         populateTransientFields(exam); // Populate transient fields for the returned object
+        upcomingExamIndex.examChanged(exam);
+        examScheduleIndex.examChanged(exam);
         return exam;
     }
 
     @Transactional
-    public Exam updateExam(Exam exam) {
+    public Exam updateExam(Exam exam, boolean allowConflict) {
         Exam existingExam = examMapper.findExamById(exam.getId());
         if (existingExam == null) {
             throw new CustomException(HttpStatus.NOT_FOUND.value(), "Exam not found.");
         }
 
+        List<Long> classIds = distinct(exam.getClassIds());
+        List<Long> subjectIds = distinct(exam.getSubjectIds());
+        lockClassIds(classIds);
+        checkScheduleConflicts(exam, classIds, allowConflict);
         // Update subjects string
-        if (exam.getSubjectIds() != null && !exam.getSubjectIds().isEmpty()) {
-            String subjectNames = exam.getSubjectIds().stream()
-                    .map(subjectMapper::findById)
-                    .map(Subject::getSubjectName)
-                    .collect(Collectors.joining(","));
-            exam.setSubjects(subjectNames);
-        } else {
-            exam.setSubjects(null);
-        }
+        exam.setSubjects(subjectNames(subjectIds));
 
         examMapper.updateExam(exam);
 
-        // Update exam-class links: delete old and insert new
-        examMapper.deleteExamClassLinkByExamId(exam.getId());
-        if (exam.getClassIds() != null && !exam.getClassIds().isEmpty()) {
-            for (Long classId : exam.getClassIds()) {
-                IkunClass ikunClass = classMapper.findById(classId);
-                if (ikunClass == null) {
-                    throw new CustomException(HttpStatus.BAD_REQUEST.value(), "Class with ID " + classId + " not found.");
-                }
-                examMapper.insertExamClassLink(exam.getId(), classId);
-            }
+        // Apply only the differences to the link tables; unchanged exam_subject rows keep their
+        // custom full/pass scores and weights
+        LinkDiff<Long> classDiff = LinkDiff.of(examMapper.findClassIdsByExamId(exam.getId()), classIds);
+        if (!classDiff.getToRemove().isEmpty()) {
+            examMapper.deleteExamClassLinks(exam.getId(), classDiff.getToRemove());
+        }
+        if (!classDiff.getToAdd().isEmpty()) {
+            examMapper.batchInsertExamClassLinks(exam.getId(), classDiff.getToAdd());
         }
 
-        // Update exam-subject links: delete old and insert new
-        examMapper.deleteExamSubjectLinkByExamId(exam.getId());
-        if (exam.getSubjectIds() != null && !exam.getSubjectIds().isEmpty()) {
-            for (Long subjectId : exam.getSubjectIds()) {
-                Subject subject = subjectMapper.findById(subjectId);
-                if (subject == null) {
-                    throw new CustomException(HttpStatus.BAD_REQUEST.value(), "Subject with ID " + subjectId + " not found.");
-                }
-                examMapper.insertExamSubjectLink(exam.getId(), subjectId);
-            }
+        LinkDiff<Long> subjectDiff = LinkDiff.of(examMapper.findSubjectIdsByExamId(exam.getId()), subjectIds);
+        if (!subjectDiff.getToRemove().isEmpty()) {
+            examMapper.deleteExamSubjectLinks(exam.getId(), subjectDiff.getToRemove());
+        }
+        if (!subjectDiff.getToAdd().isEmpty()) {
+            examMapper.batchInsertExamSubjectLinks(exam.getId(), subjectDiff.getToAdd());
         }
 
+        examStatusScheduler.reschedule(exam);
         populateTransientFields(exam); // Populate transient fields for the returned object
+        upcomingExamIndex.examChanged(exam);
+        examScheduleIndex.examChanged(exam);
         return exam;
     }
 
+    private static List<Long> distinct(List<Long> ids) {
+        return ids == null ? Collections.emptyList() : new ArrayList<>(new LinkedHashSet<>(ids));
+    }
+
+    // Validate all class IDs with one query and report every missing ID at once.
+    // The class rows stay locked until commit, so concurrent exam writes for the same class
+    // run their schedule conflict check one after another
+    private void lockClassIds(List<Long> classIds) {
+        if (classIds.isEmpty()) {
+            return;
+        }
+        List<Long> missing = LinkDiff.missing(classIds, classMapper.lockExistingIds(classIds));
+        if (!missing.isEmpty()) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "Class with ID " + joinIds(missing) + " not found.");
+        }
+    }
+
+    // Load all subjects with one query, validate them and build the comma-separated names in request order
+    private String subjectNames(List<Long> subjectIds) {
+        if (subjectIds.isEmpty()) {
+            return null;
+        }
+        Map<Long, String> names = new HashMap<>();
+        for (Subject subject : subjectMapper.findByIds(subjectIds)) {
+            names.put(subject.getId(), subject.getSubjectName());
+        }
+        List<Long> missing = LinkDiff.missing(subjectIds, names.keySet());
+        if (!missing.isEmpty()) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "Subject with ID " + joinIds(missing) + " not found.");
+        }
+        return subjectIds.stream().map(names::get).collect(Collectors.joining(","));
+    }
+
+    // 关联班级在该考试时间段内已有其他考试时拒绝保存。
+    // 内存索引在事务提交后才更新，刚提交的考试可能还不在索引中，因此索引未发现冲突时
+    // 再在班级行锁（lockClassIds）保护下查库复查
+    private void checkScheduleConflicts(Exam exam, List<Long> classIds, boolean allowConflict) {
+        if (allowConflict || exam.getExamDate() == null || classIds.isEmpty()) {
+            return;
+        }
+        List<ExamConflict> conflicts = examScheduleIndex.findConflicts(
+                exam.getId(), exam.getExamName(), exam.getExamDate(), exam.getDuration(), classIds);
+        if (conflicts.isEmpty()) {
+            LocalDateTime start = exam.getExamDate();
+            LocalDateTime end = start.plusMinutes(exam.getDuration() != null ? Math.max(exam.getDuration(), 0) : 0);
+            conflicts = ExamScheduleIndex.conflictsAmong(exam.getId(), exam.getExamName(), start,
+                    exam.getDuration(), examMapper.findClassScheduleBetween(classIds, start, end));
+        }
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        fillClassNames(conflicts);
+        String detail = conflicts.stream()
+                .map(c -> (c.getClassName() != null ? c.getClassName() : "班级" + c.getClassId())
+                        + "：" + c.getOtherExamName() + "（" + TIME_FORMAT.format(c.getOtherStart())
+                        + " - " + TIME_FORMAT.format(c.getOtherEnd()) + "）")
+                .collect(Collectors.joining("；"));
+        throw new CustomException(HttpStatus.CONFLICT.value(), "考试时间与以下考试冲突：" + detail);
+    }
+
+    /**
+     * 列出时间范围内所有班级的考试时间冲突
+     */
+    public List<ExamConflict> getScheduleConflicts(LocalDateTime from, LocalDateTime to) {
+        List<ExamConflict> conflicts = examScheduleIndex.findAllConflicts(from, to);
+        fillClassNames(conflicts);
+        return conflicts;
+    }
+
+    private void fillClassNames(List<ExamConflict> conflicts) {
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        Set<Long> classIds = conflicts.stream().map(ExamConflict::getClassId).collect(Collectors.toSet());
+        Map<Long, String> names = new HashMap<>();
+        for (IkunClass ikunClass : classMapper.findNamesByIds(classIds)) {
+            names.put(ikunClass.getId(), ikunClass.getClassName());
+        }
+        for (ExamConflict conflict : conflicts) {
+            conflict.setClassName(names.get(conflict.getClassId()));
+        }
+    }
+
+    private static String joinIds(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 删除考试：关联表在本事务内删除，考试标记为删除中后立即从列表消失；
+     * 成绩可能有数万行，由后台任务分批删除，完成后再删除考试行。
+     *
+     * @return 后台删除任务，可通过 /api/exam/purge-jobs/{id} 查询进度
+     */
     @Transactional
-    public void deleteExam(Long id) {
+    public PurgeJob deleteExam(Long id) {
+        if (examMapper.findExamById(id) == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "Exam not found.");
+        }
         // Delete associated class and subject links first to maintain referential integrity
         examMapper.deleteExamClassLinkByExamId(id);
         examMapper.deleteExamSubjectLinkByExamId(id);
-        examMapper.deleteExam(id);
+        examMapper.markPurging(id);
+        PurgeJob job = purgeJobService.enqueueExamPurge(id);
+        examRankingEngine.invalidate(id);
+        scoreStatsService.invalidate(id);
+        examStatusScheduler.cancel(id);
+        upcomingExamIndex.examDeleted(id);
+        examScheduleIndex.examDeleted(id);
+        return job;
     }
 
     public List<String> getDistinctExamTypes() {
@@ -148,42 +282,38 @@ public class ExamService {
 
     // Helper method to populate transient fields for an Exam object
     private void populateTransientFields(Exam exam) {
-        // Populate class names and IDs
-        List<String> classNames = examMapper.findClassNamesByExamId(exam.getId());
-        exam.setClassNames(classNames);
-        List<Long> classIds = examMapper.findClassIdsByExamId(exam.getId());
-        exam.setClassIds(classIds);
-
-        // Populate subject IDs (names are already in exam.subjects, which is a DB field)
-        List<Long> subjectIds = examMapper.findSubjectIdsByExamId(exam.getId());
-        exam.setSubjectIds(subjectIds);
-    }
-
-    // Method to update exam status based on current date/time
-    public void updateExamStatusScheduler() {
-        List<Exam> allExams = examMapper.findAllExams(null, null);
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Exam exam : allExams) {
-            int currentStatus = exam.getStatus();
-            int newStatus = currentStatus;
-
-            // Assuming examDate is the start time, duration is in minutes
-            LocalDateTime startTime = exam.getExamDate();
-            LocalDateTime endTime = startTime.plusMinutes(exam.getDuration());
-
-            if (now.isBefore(startTime) && currentStatus != 0) {
-                newStatus = 0; // 未开始
-            } else if (now.isAfter(startTime) && now.isBefore(endTime) && currentStatus != 1) {
-                newStatus = 1; // 进行中
-            } else if (now.isAfter(endTime) && currentStatus != 2) {
-                newStatus = 2; // 已结束
+        populateTransientFields(Collections.singletonList(exam));
+    }
+
+    // Batch version: class and subject links for all exams are loaded with one IN query each
+    private void populateTransientFields(List<Exam> exams) {
+        if (exams.isEmpty()) {
+            return;
+        }
+        List<Long> examIds = exams.stream().map(Exam::getId).collect(Collectors.toList());
+        Map<Long, List<ExamLinkRow>> classLinks =
+                new BatchLoader<>(examMapper::findClassLinksByExamIds, ExamLinkRow::getExamId).loadMany(examIds);
+        Map<Long, List<ExamLinkRow>> subjectLinks =
+                new BatchLoader<>(examMapper::findSubjectLinksByExamIds, ExamLinkRow::getExamId).loadMany(examIds);
+
+        for (Exam exam : exams) {
+            List<String> classNames = new ArrayList<>();
+            List<Long> classIds = new ArrayList<>();
+            for (ExamLinkRow link : classLinks.get(exam.getId())) {
+                classIds.add(link.getTargetId());
+                if (link.getTargetName() != null) {
+                    classNames.add(link.getTargetName());
+                }
             }
+            exam.setClassNames(classNames);
+            exam.setClassIds(classIds);
 
-            if (newStatus != currentStatus) {
-                exam.setStatus(newStatus);
-                examMapper.updateExam(exam); // Update status in DB
+            // Subject names are already in exam.subjects, which is a DB field
+            List<Long> subjectIds = new ArrayList<>();
+            for (ExamLinkRow link : subjectLinks.get(exam.getId())) {
+                subjectIds.add(link.getTargetId());
             }
+            exam.setSubjectIds(subjectIds);
         }
     }
 
@@ -199,4 +329,157 @@ public class ExamService {
 
         return stats;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 考试质量分析。成绩按科目、分数降序通过游标读取一遍：
+     * 每行带有该科目总人数，因此读到第几行就知道它是否落在前/后 27%，无需二次读取。
+     *
+     * @param examId         考试ID
+     * @param excellentRatio 优秀线占满分的比例
+     */
+    @Transactional(readOnly = true)
+    public ExamItemAnalysis getItemAnalysis(Long examId, double excellentRatio) {
+        Exam exam = examMapper.findExamById(examId);
+        if (exam == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "Exam not found.");
+        }
+        Map<String, ExamSubjectRule> rules = new HashMap<>();
+        for (ExamSubjectRule rule : examMapper.findSubjectRulesByExamId(examId)) {
+            rules.put(rule.getSubjectName(), rule);
+        }
+
+        ExamItemAnalysis analysis = new ExamItemAnalysis();
+        analysis.setExamId(examId);
+        analysis.setExamName(exam.getExamName());
+        SubjectAccumulator current = null;
+        try (Cursor<ItemAnalysisRow> cursor = scoreMapper.cursorItemAnalysisRows(examId)) {
+            for (ItemAnalysisRow row : cursor) {
+                if (current == null || !current.subject.equals(row.getSubject())) {
+                    if (current != null) {
+                        analysis.getSubjects().add(current.toResult());
+                    }
+                    current = new SubjectAccumulator(row.getSubject(), row.getSubjectCount(),
+                            rules.get(row.getSubject()), excellentRatio);
+                }
+                current.accept(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (current != null) {
+            analysis.getSubjects().add(current.toResult());
+        }
+        return analysis;
+    }
+
+    /**
+     * 单个科目的累加器，分数统一用十分之一分的整数累加
+     */
+    private static final class SubjectAccumulator {
+        private static final double GROUP_RATIO = 0.27;
+
+        private final String subject;
+        private final int total;
+        private final int groupSize;
+        private final int fullTenths;
+        private final int passTenths;
+        private final int excellentTenths;
+
+        private int seen;
+        private long sum;
+        private int passed;
+        private int excellent;
+        private long highSum;
+        private long lowSum;
+        private final Map<Long, ClassAccumulator> classes = new TreeMap<>();
+
+        SubjectAccumulator(String subject, int total, ExamSubjectRule rule, double excellentRatio) {
+            this.subject = subject;
+            this.total = total;
+            this.groupSize = Math.max(1, (int) Math.round(total * GROUP_RATIO));
+            BigDecimal fullScore = rule != null && rule.getFullScore() != null ? rule.getFullScore() : new BigDecimal("100");
+            BigDecimal passScore = rule != null && rule.getPassScore() != null
+                    ? rule.getPassScore() : fullScore.multiply(new BigDecimal("0.6"));
+            this.fullTenths = ExamRankingTable.toTenths(fullScore);
+            this.passTenths = ExamRankingTable.toTenths(passScore);
+            this.excellentTenths = (int) Math.ceil(fullTenths * excellentRatio);
+        }
+
+        void accept(ItemAnalysisRow row) {
+            int value = ExamRankingTable.toTenths(row.getScore());
+            // 降序读取：前 groupSize 行是高分组，最后 groupSize 行是低分组
+            if (seen < groupSize) {
+                highSum += value;
+            }
+            if (seen >= total - groupSize) {
+                lowSum += value;
+            }
+            seen++;
+            sum += value;
+            boolean isPass = value >= passTenths;
+            boolean isExcellent = value >= excellentTenths;
+            if (isPass) {
+                passed++;
+            }
+            if (isExcellent) {
+                excellent++;
+            }
+            ClassAccumulator cls = classes.computeIfAbsent(row.getClassId(), k -> new ClassAccumulator(row.getClassName()));
+            cls.count++;
+            cls.sum += value;
+            cls.passed += isPass ? 1 : 0;
+            cls.excellent += isExcellent ? 1 : 0;
+        }
+
+        ExamItemAnalysis.SubjectAnalysis toResult() {
+            ExamItemAnalysis.SubjectAnalysis result = new ExamItemAnalysis.SubjectAnalysis();
+            result.setSubject(subject);
+            result.setFullScore(fullTenths / 10.0);
+            result.setPassScore(passTenths / 10.0);
+            result.setExcellentScore(excellentTenths / 10.0);
+            result.setCount(seen);
+            result.setGroupSize(groupSize);
+            if (seen == 0) {
+                return result;
+            }
+            double average = sum / 10.0 / seen;
+            result.setAverage(CacheUtils.round2(average));
+            result.setPassRate(CacheUtils.round2(passed * 100.0 / seen));
+            result.setExcellentRate(CacheUtils.round2(excellent * 100.0 / seen));
+            double highAverage = highSum / 10.0 / groupSize;
+            double lowAverage = lowSum / 10.0 / groupSize;
+            result.setHighGroupAverage(CacheUtils.round2(highAverage));
+            result.setLowGroupAverage(CacheUtils.round2(lowAverage));
+            if (fullTenths > 0) {
+                result.setDifficulty(CacheUtils.round2(average * 10 / fullTenths));
+                result.setDiscrimination(CacheUtils.round2((highAverage - lowAverage) * 10 / fullTenths));
+            }
+            for (Map.Entry<Long, ClassAccumulator> entry : classes.entrySet()) {
+                ClassAccumulator cls = entry.getValue();
+                ExamItemAnalysis.ClassComparison comparison = new ExamItemAnalysis.ClassComparison();
+                comparison.setClassId(entry.getKey());
+                comparison.setClassName(cls.className);
+                comparison.setCount(cls.count);
+                double classAverage = cls.sum / 10.0 / cls.count;
+                comparison.setAverage(CacheUtils.round2(classAverage));
+                comparison.setPassRate(CacheUtils.round2(cls.passed * 100.0 / cls.count));
+                comparison.setExcellentRate(CacheUtils.round2(cls.excellent * 100.0 / cls.count));
+                comparison.setAverageDiff(CacheUtils.round2(classAverage - average));
+                result.getClasses().add(comparison);
+            }
+            return result;
+        }
+    }
+
+    private static final class ClassAccumulator {
+        private final String className;
+        private int count;
+        private long sum;
+        private int passed;
+        private int excellent;
+
+        ClassAccumulator(String className) {
+            this.className = className;
+        }
+    }
+}
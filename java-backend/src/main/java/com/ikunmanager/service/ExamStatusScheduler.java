@@ -0,0 +1,254 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.model.Exam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 考试状态调度器。
+ * <p>
+ * 每场未结束考试的“开始”“结束”两个时间点放入按时间排序的优先队列，单线程只在队首时间点醒来，
+ * 把到期的考试按目标状态分组，用一条 UPDATE exam SET status = ? WHERE id IN (...) 批量更新。
+ * 启动时加载一次未结束的考试；之后考试新增、修改、删除时只调整该考试在队列中的条目，不再扫描全表。
+ */
+@Component
+public class ExamStatusScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamStatusScheduler.class);
+
+    static final int NOT_STARTED = 0;
+    static final int IN_PROGRESS = 1;
+    static final int FINISHED = 2;
+
+    /** 写库失败后重试的间隔 */
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "exam-status-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PriorityQueue<Transition> queue = new PriorityQueue<>();
+    /** 考试ID → 当前有效的计划版本；重新调度后旧版本的队列条目在出队时直接丢弃 */
+    private final Map<Long, Long> versions = new HashMap<>();
+    /** 考试ID → 数据库中当前的状态 */
+    private final Map<Long, Integer> statuses = new HashMap<>();
+    private long nextVersion;
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpAt = Long.MAX_VALUE;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<Exam> exams = examMapper.findExamsForStatusSchedule();
+        synchronized (this) {
+            for (Exam exam : exams) {
+                plan(exam);
+            }
+        }
+        executor.execute(this::runDueTransitions);
+        log.info("Exam status scheduler started with {} pending exams", exams.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 考试新增或修改后重新安排它的状态变化（事务提交后生效）
+     */
+    public void reschedule(Exam exam) {
+        if (exam == null || exam.getId() == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                plan(exam);
+            }
+            executor.execute(this::runDueTransitions);
+        });
+    }
+
+    /**
+     * 考试删除后移出调度（事务提交后生效）
+     */
+    public void cancel(Long examId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                versions.remove(examId);
+                statuses.remove(examId);
+            }
+        });
+    }
+
+    // 为考试生成新的计划版本；当前时刻应处的状态与库中不一致时安排一个立即执行的变化
+    private void plan(Exam exam) {
+        if (exam.getExamDate() == null) {
+            versions.remove(exam.getId());
+            statuses.remove(exam.getId());
+            return;
+        }
+        long version = ++nextVersion;
+        long start = toMillis(exam.getExamDate());
+        long end = start + TimeUnit.MINUTES.toMillis(exam.getDuration() != null ? Math.max(exam.getDuration(), 0) : 0);
+        long now = System.currentTimeMillis();
+        versions.put(exam.getId(), version);
+        statuses.put(exam.getId(), exam.getStatus() != null ? exam.getStatus() : NOT_STARTED);
+
+        int expected = statusAt(now, start, end);
+        if (expected != statuses.get(exam.getId())) {
+            queue.add(new Transition(now, exam.getId(), version, expected));
+        }
+        if (now < start && start < end) {
+            queue.add(new Transition(start, exam.getId(), version, IN_PROGRESS));
+        }
+        if (now < end) {
+            queue.add(new Transition(end, exam.getId(), version, FINISHED));
+        }
+    }
+
+    static int statusAt(long now, long start, long end) {
+        if (now < start) {
+            return NOT_STARTED;
+        }
+        return now < end ? IN_PROGRESS : FINISHED;
+    }
+
+    private void runDueTransitions() {
+        // 目标状态 → (考试ID → 计划版本)
+        Map<Integer, Map<Long, Long>> byStatus = new HashMap<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Map<Long, Transition> due = new HashMap<>();
+            while (!queue.isEmpty() && queue.peek().at <= now) {
+                Transition t = queue.poll();
+                Long current = versions.get(t.examId);
+                if (current == null || current != t.version) {
+                    continue; // 考试已删除或已重新调度
+                }
+                // 同一考试的多个到期条目按时间先后覆盖，只保留最终状态
+                due.put(t.examId, t);
+            }
+            for (Transition t : due.values()) {
+                if (t.status != statuses.get(t.examId)) {
+                    byStatus.computeIfAbsent(t.status, k -> new HashMap<>()).put(t.examId, t.version);
+                } else {
+                    forgetIfFinished(t.examId, t.status);
+                }
+            }
+        }
+        // 内存状态只在写库成功后更新；失败的变化稍后重试，避免库中状态永远停在旧值
+        for (Map.Entry<Integer, Map<Long, Long>> entry : byStatus.entrySet()) {
+            int status = entry.getKey();
+            Map<Long, Long> exams = entry.getValue();
+            boolean written;
+            try {
+                examMapper.updateStatusByIds(status, new ArrayList<>(exams.keySet()));
+                written = true;
+            } catch (RuntimeException e) {
+                log.error("Failed to update exam status to {} for exams {}, retrying in {} s",
+                        status, exams.keySet(), TimeUnit.MILLISECONDS.toSeconds(RETRY_DELAY_MILLIS), e);
+                written = false;
+            }
+            synchronized (this) {
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                for (Map.Entry<Long, Long> exam : exams.entrySet()) {
+                    Long examId = exam.getKey();
+                    Long current = versions.get(examId);
+                    if (current == null || !current.equals(exam.getValue())) {
+                        continue; // 写库期间考试被删除或重新调度，以新的计划为准
+                    }
+                    if (written) {
+                        statuses.put(examId, status);
+                        forgetIfFinished(examId, status);
+                    } else {
+                        queue.add(new Transition(retryAt, examId, exam.getValue(), status));
+                    }
+                }
+            }
+        }
+        scheduleNextWakeUp();
+    }
+
+    // 已结束且没有后续计划的考试不再跟踪
+    private void forgetIfFinished(Long examId, int status) {
+        if (status == FINISHED && !hasPending(examId)) {
+            versions.remove(examId);
+            statuses.remove(examId);
+        }
+    }
+
+    private boolean hasPending(Long examId) {
+        Long version = versions.get(examId);
+        for (Transition t : queue) {
+            if (t.examId == examId && t.version == version) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void scheduleNextWakeUp() {
+        Transition head = queue.peek();
+        long at = head != null ? head.at : Long.MAX_VALUE;
+        if (at == wakeUpAt && wakeUp != null && !wakeUp.isDone()) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUpAt = at;
+        if (head != null) {
+            long delay = Math.max(0, at - System.currentTimeMillis());
+            wakeUp = executor.schedule(this::runDueTransitions, delay, TimeUnit.MILLISECONDS);
+        } else {
+            wakeUp = null;
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Transition implements Comparable<Transition> {
+        private final long at;
+        private final long examId;
+        private final long version;
+        private final int status;
+
+        Transition(long at, long examId, long version, int status) {
+            this.at = at;
+            this.examId = examId;
+            this.version = version;
+            this.status = status;
+        }
+
+        @Override
+        public int compareTo(Transition other) {
+            return Long.compare(at, other.at);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.mapper.ExamSeatMapper;
+import com.ikunmanager.mapper.PurgeJobMapper;
+import com.ikunmanager.mapper.ScoreMapper;
+import com.ikunmanager.model.PurgeJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+
+/**
+ * 后台分批删除。
+ * <p>
+ * 删除考试时只在请求事务里删掉关联表并把考试标记为“删除中”，成绩和座位由单个后台线程
+ * 每次删除 chunk-size 行、每批一个短事务，进度写回 purge_job；最后才删除考试行，此时
+ * ON DELETE CASCADE 已无数据可删。任务状态持久化在数据库中，应用重启后未完成的任务会继续执行；
+ * 失败或执行中被打断的任务重启后也会重试，但累计执行 max-attempts 次后不再自动重试，需人工处理。
+ */
+@Service
+public class PurgeJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgeJobService.class);
+
+    @Value("${app.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.purge.max-attempts:3}")
+    private int maxAttempts;
+
+    @Autowired
+    private PurgeJobMapper purgeJobMapper;
+    @Autowired
+    private ScoreMapper scoreMapper;
+    @Autowired
+    private ExamSeatMapper examSeatMapper;
+    @Autowired
+    private ExamMapper examMapper;
+    @Autowired
+    private ExamRankingEngine examRankingEngine;
+    @Autowired
+    private ScoreStatsService scoreStatsService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "purge-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        int exhausted = purgeJobMapper.failExhausted(maxAttempts, "已执行 " + maxAttempts + " 次仍未完成，不再自动重试");
+        if (exhausted > 0) {
+            log.warn("{} purge job(s) reached {} attempts while running, marked as failed", exhausted, maxAttempts);
+        }
+        for (PurgeJob job : purgeJobMapper.findUnfinished(maxAttempts)) {
+            log.info("Resuming purge job {} for {} {} (attempt {})", job.getId(), job.getTargetType(),
+                    job.getTargetId(), job.getAttempts() + 1);
+            executor.execute(() -> run(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 正在执行的任务在当前批次结束后停止，保持“执行中”状态，重启后继续
+        executor.shutdownNow();
+    }
+
+    /**
+     * 登记考试删除任务，在当前事务提交后开始执行
+     */
+    public PurgeJob enqueueExamPurge(Long examId) {
+        PurgeJob job = new PurgeJob();
+        job.setTargetType(PurgeJob.TYPE_EXAM);
+        job.setTargetId(examId);
+        job.setStatus(PurgeJob.PENDING);
+        job.setTotalRows(0L);
+        job.setDeletedRows(0L);
+        job.setAttempts(0);
+        purgeJobMapper.insert(job);
+        Long jobId = job.getId();
+        TransactionHooks.afterCommit(() -> executor.execute(() -> run(jobId)));
+        return job;
+    }
+
+    public PurgeJob getJob(Long id) {
+        PurgeJob job = purgeJobMapper.findById(id);
+        if (job == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "删除任务不存在");
+        }
+        return job;
+    }
+
+    private void run(Long jobId) {
+        PurgeJob job = purgeJobMapper.findById(jobId);
+        if (job == null || job.getStatus() == PurgeJob.FINISHED) {
+            return;
+        }
+        Long examId = job.getTargetId();
+        try {
+            purgeJobMapper.startAttempt(jobId);
+            long deleted = job.getDeletedRows() != null ? job.getDeletedRows() : 0;
+            purgeJobMapper.updateTotalRows(jobId,
+                    deleted + scoreMapper.countByExamId(examId) + examSeatMapper.countByExamId(examId));
+
+            if (!deleteInChunks(jobId, () -> scoreMapper.deleteChunkByExamId(examId, chunkSize))
+                    || !deleteInChunks(jobId, () -> examSeatMapper.deleteChunkByExamId(examId, chunkSize))) {
+                log.info("Purge job {} interrupted, will resume on next start", jobId);
+                return;
+            }
+            // 子表已清空，删除考试行（成绩在删除过程中新增的零星行仍由外键级联删除）
+            transactionTemplate.executeWithoutResult(status -> {
+                examMapper.deleteExamClassLinkByExamId(examId);
+                examMapper.deleteExamSubjectLinkByExamId(examId);
+                examMapper.deleteExam(examId);
+                purgeJobMapper.updateStatus(jobId, PurgeJob.FINISHED, null);
+            });
+            log.info("Purge job {} finished for exam {}", jobId, examId);
+        } catch (RuntimeException e) {
+            log.error("Purge job {} failed", jobId, e);
+            String message = String.valueOf(e.getMessage());
+            purgeJobMapper.updateStatus(jobId, PurgeJob.FAILED, message.length() > 500 ? message.substring(0, 500) : message);
+        } finally {
+            examRankingEngine.invalidate(examId);
+            scoreStatsService.invalidate(examId);
+        }
+    }
+
+    // 每批一个事务：删除至多 chunkSize 行并累加进度；被中断时返回 false
+    private boolean deleteInChunks(Long jobId, IntSupplier deleteChunk) {
+        int deleted;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            deleted = transactionTemplate.execute(status -> {
+                int rows = deleteChunk.getAsInt();
+                if (rows > 0) {
+                    purgeJobMapper.addDeletedRows(jobId, rows);
+                }
+                return rows;
+            });
+        } while (deleted >= chunkSize);
+        return true;
+    }
+}
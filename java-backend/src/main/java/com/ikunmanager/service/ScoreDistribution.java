@@ -0,0 +1,163 @@
+package com.ikunmanager.service;
+
+import java.util.Arrays;
+
+/**
+ * 一组成绩的可合并分布摘要。
+ * <p>
+ * 成绩精度固定为 0.1 分，因此直接保存“分数（十分之一分）→ 人数”的稀疏有序直方图，
+ * 同时维护 count / sum / sum of squares。这样分位数是精确的，任意两个分布可以 O(k) 合并
+ * （k 为不同分数的个数，最多约 1000），单个成绩的增删也是 O(k)。
+ * 非线程安全，由调用方加锁。
+ */
+public final class ScoreDistribution {
+
+    private int[] values = new int[8];
+    private int[] counts = new int[8];
+    private int distinct;
+    private long count;
+    private long sum;
+    private long sumOfSquares;
+
+    public void add(int tenths) {
+        int idx = Arrays.binarySearch(values, 0, distinct, tenths);
+        if (idx >= 0) {
+            counts[idx]++;
+        } else {
+            int insertAt = -idx - 1;
+            if (distinct == values.length) {
+                values = Arrays.copyOf(values, distinct * 2);
+                counts = Arrays.copyOf(counts, distinct * 2);
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, distinct - insertAt);
+            System.arraycopy(counts, insertAt, counts, insertAt + 1, distinct - insertAt);
+            values[insertAt] = tenths;
+            counts[insertAt] = 1;
+            distinct++;
+        }
+        count++;
+        sum += tenths;
+        sumOfSquares += (long) tenths * tenths;
+    }
+
+    /**
+     * 移除一个成绩；分布中不存在该分数时返回 false（说明摘要已与数据库不一致）
+     */
+    public boolean remove(int tenths) {
+        int idx = Arrays.binarySearch(values, 0, distinct, tenths);
+        if (idx < 0) {
+            return false;
+        }
+        if (--counts[idx] == 0) {
+            System.arraycopy(values, idx + 1, values, idx, distinct - idx - 1);
+            System.arraycopy(counts, idx + 1, counts, idx, distinct - idx - 1);
+            distinct--;
+        }
+        count--;
+        sum -= tenths;
+        sumOfSquares -= (long) tenths * tenths;
+        return true;
+    }
+
+    /**
+     * 把 other 合并进当前分布
+     */
+    public void merge(ScoreDistribution other) {
+        int[] mergedValues = new int[distinct + other.distinct];
+        int[] mergedCounts = new int[mergedValues.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < distinct || j < other.distinct) {
+            if (j == other.distinct || (i < distinct && values[i] < other.values[j])) {
+                mergedValues[k] = values[i];
+                mergedCounts[k++] = counts[i++];
+            } else if (i == distinct || other.values[j] < values[i]) {
+                mergedValues[k] = other.values[j];
+                mergedCounts[k++] = other.counts[j++];
+            } else {
+                mergedValues[k] = values[i];
+                mergedCounts[k++] = counts[i++] + other.counts[j++];
+            }
+        }
+        values = mergedValues.length == 0 ? new int[8] : mergedValues;
+        counts = mergedCounts.length == 0 ? new int[8] : mergedCounts;
+        distinct = k;
+        count += other.count;
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** 平均分；为空时返回 NaN */
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / 10.0 / count;
+    }
+
+    /** 总体标准差；为空时返回 NaN */
+    public double standardDeviation() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        // n*Σx² - (Σx)² 在十分之一分单位下是精确整数
+        double variance = (double) (count * sumOfSquares - sum * sum) / ((double) count * count);
+        return Math.sqrt(Math.max(variance, 0)) / 10.0;
+    }
+
+    public double min() {
+        return distinct == 0 ? Double.NaN : values[0] / 10.0;
+    }
+
+    public double max() {
+        return distinct == 0 ? Double.NaN : values[distinct - 1] / 10.0;
+    }
+
+    /**
+     * 分位数（最近秩法）：最小的分数 v，使得不高于 v 的人数 ≥ ceil(p × n)
+     */
+    public double percentile(double p) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int i = 0; i < distinct; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return values[i] / 10.0;
+            }
+        }
+        return values[distinct - 1] / 10.0;
+    }
+
+    /** 分数 ≥ threshold（十分之一分）的人数 */
+    public long countAtLeast(int thresholdTenths) {
+        int idx = Arrays.binarySearch(values, 0, distinct, thresholdTenths);
+        int from = idx >= 0 ? idx : -idx - 1;
+        long result = 0;
+        for (int i = from; i < distinct; i++) {
+            result += counts[i];
+        }
+        return result;
+    }
+
+    /**
+     * 等宽直方图：从 0 开始、宽度 widthTenths 的分段人数，最后一段包含上界 maxTenths
+     */
+    public long[] histogram(int widthTenths, int maxTenths) {
+        int buckets = Math.max(1, (maxTenths + widthTenths - 1) / widthTenths);
+        long[] result = new long[buckets];
+        for (int i = 0; i < distinct; i++) {
+            int bucket = Math.min(Math.max(values[i], 0) / widthTenths, buckets - 1);
+            result[bucket] += counts[i];
+        }
+        return result;
+    }
+}
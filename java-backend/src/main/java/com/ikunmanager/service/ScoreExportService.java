@@ -0,0 +1,286 @@
+package com.ikunmanager.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.DownloadUtils;
+import com.ikunmanager.dto.ScoreExportRow;
+import com.ikunmanager.dto.StudentScoreReport;
+import com.ikunmanager.mapper.ScoreMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 成绩相关的文件导出，数据边生成边写入响应流。
+ */
+@Service
+public class ScoreExportService {
+
+    @Autowired
+    private ScoreService scoreService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ScoreMapper scoreMapper;
+
+    /**
+     * 导出成绩明细。数据通过 MyBatis 游标逐行读取并立即写入响应，内存占用与行数无关。
+     *
+     * @param examId    考试ID（与日期范围至少指定一个）
+     * @param classId   班级ID（可选）
+     * @param startDate 考试日期下限（可选）
+     * @param endDate   考试日期上限，含当天（可选）
+     * @param layout    long：每个成绩一行；wide：每名学生每场考试一行，科目为列
+     * @param format    xlsx 或 csv
+     */
+    @Transactional(readOnly = true)
+    public void exportScores(Long examId, Long classId, LocalDate startDate, LocalDate endDate,
+                             String layout, String format, HttpServletResponse response) throws IOException {
+        if (examId == null && startDate == null && endDate == null) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "请指定考试或考试日期范围");
+        }
+        boolean wide = "wide".equalsIgnoreCase(layout);
+        boolean csv = "csv".equalsIgnoreCase(format);
+
+        // 宽表表头需要先知道全部科目；必须在打开流式游标之前查询，流式读取期间连接不能执行其它语句
+        List<String> subjects = wide
+                ? scoreMapper.findSubjectsForExport(examId, classId, startDate, endDate)
+                : Collections.emptyList();
+        List<String> head = new ArrayList<>(Arrays.asList("考试", "考试日期", "学号", "姓名", "班级"));
+        if (wide) {
+            head.addAll(subjects);
+            head.add("总分");
+        } else {
+            head.add("科目");
+            head.add("成绩");
+        }
+
+        String fileName = (examId != null ? "exam-" + examId : "scores") + (wide ? "-wide" : "") + (csv ? ".csv" : ".xlsx");
+        DownloadUtils.prepare(response, fileName, csv ? DownloadUtils.CSV_CONTENT_TYPE : DownloadUtils.XLSX_CONTENT_TYPE);
+        TableSink sink = csv
+                ? TableSink.csv(response.getOutputStream(), head)
+                : TableSink.excel(response.getOutputStream(), head, "成绩");
+
+        try (Cursor<ScoreExportRow> cursor = scoreMapper.cursorScoresForExport(examId, classId, startDate, endDate)) {
+            if (wide) {
+                writeWide(cursor, subjects, sink);
+            } else {
+                for (ScoreExportRow row : cursor) {
+                    sink.row(Arrays.asList(row.getExamName(), row.getExamDate(), row.getStudentNo(),
+                            row.getStudentName(), row.getClassName(), row.getSubject(), row.getScore()));
+                }
+            }
+        }
+        sink.finish();
+    }
+
+    /**
+     * 游标按考试、学生、科目有序，因此同一时间只需保留当前学生的一行，学生变化时写出。
+     */
+    private void writeWide(Cursor<ScoreExportRow> cursor, List<String> subjects, TableSink sink) throws IOException {
+        Map<String, Integer> subjectIndex = new HashMap<>();
+        for (int i = 0; i < subjects.size(); i++) {
+            subjectIndex.put(subjects.get(i), i);
+        }
+        int fixedColumns = 5;
+        Object[] current = null;
+        Long currentExamId = null;
+        Long currentStudentId = null;
+        BigDecimal total = BigDecimal.ZERO;
+        for (ScoreExportRow row : cursor) {
+            if (current == null || !row.getExamId().equals(currentExamId) || !row.getStudentId().equals(currentStudentId)) {
+                if (current != null) {
+                    current[current.length - 1] = total;
+                    sink.row(Arrays.asList(current));
+                }
+                current = new Object[fixedColumns + subjects.size() + 1];
+                current[0] = row.getExamName();
+                current[1] = row.getExamDate();
+                current[2] = row.getStudentNo();
+                current[3] = row.getStudentName();
+                current[4] = row.getClassName();
+                currentExamId = row.getExamId();
+                currentStudentId = row.getStudentId();
+                total = BigDecimal.ZERO;
+            }
+            Integer column = subjectIndex.get(row.getSubject());
+            if (column != null && row.getScore() != null) {
+                current[fixedColumns + column] = row.getScore();
+                total = total.add(row.getScore());
+            }
+        }
+        if (current != null) {
+            current[current.length - 1] = total;
+            sink.row(Arrays.asList(current));
+        }
+    }
+
+    /**
+     * 以 JSON Lines（每行一个 StudentScoreReport）输出成绩报告
+     */
+    public void writeReportCardsAsJsonLines(Long examId, Long classId, HttpServletResponse response) throws IOException {
+        OutputStream out = new BufferedOutputStream(response.getOutputStream());
+        boolean[] started = {false};
+        scoreService.forEachStudentScoreReport(examId, classId, report -> {
+            try {
+                if (!started[0]) {
+                    DownloadUtils.prepare(response, "exam-" + examId + "-reports.jsonl", DownloadUtils.NDJSON_CONTENT_TYPE);
+                    started[0] = true;
+                }
+                out.write(objectMapper.writeValueAsBytes(report));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (!started[0]) {
+            DownloadUtils.prepare(response, "exam-" + examId + "-reports.jsonl", DownloadUtils.NDJSON_CONTENT_TYPE);
+        }
+        out.flush();
+    }
+
+    /**
+     * 以 Excel 输出成绩报告，每个班级一个工作表，每行一名学生
+     */
+    public void writeReportCardsAsExcel(Long examId, Long classId, HttpServletResponse response) throws IOException {
+        ReportCardWorkbook workbook = new ReportCardWorkbook(examId, response);
+        scoreService.forEachStudentScoreReport(examId, classId, workbook::accept);
+        workbook.finish();
+    }
+
+    /**
+     * 按班级切分工作表；学生已按班级排序，因此同一时间只缓冲一个班级的行。
+     */
+    private static final class ReportCardWorkbook {
+        private final Long examId;
+        private final HttpServletResponse response;
+        private ExcelWriter writer;
+        private List<String> subjects = Collections.emptyList();
+        private List<List<String>> head;
+        private final Set<String> usedSheetNames = new HashSet<>();
+        private Long currentClassId;
+        private String currentClassName;
+        private final List<List<Object>> rows = new ArrayList<>();
+        private int sheetNo;
+
+        ReportCardWorkbook(Long examId, HttpServletResponse response) {
+            this.examId = examId;
+            this.response = response;
+        }
+
+        void accept(StudentScoreReport report) {
+            if (writer == null) {
+                open(report);
+            }
+            Long classId = report.getClassInfo() != null ? report.getClassInfo().getId() : null;
+            if (!rows.isEmpty() && !Objects.equals(classId, currentClassId)) {
+                flushSheet();
+            }
+            currentClassId = classId;
+            currentClassName = report.getClassInfo() != null ? report.getClassInfo().getName() : null;
+            rows.add(toRow(report));
+        }
+
+        private void open(StudentScoreReport report) {
+            String examName = report.getExamInfo() != null && report.getExamInfo().getName() != null
+                    ? report.getExamInfo().getName() : "exam-" + examId;
+            if (report.getExamInfo() != null && report.getExamInfo().getSubjects() != null) {
+                subjects = new ArrayList<>();
+                for (String subject : report.getExamInfo().getSubjects()) {
+                    if (!subject.trim().isEmpty()) {
+                        subjects.add(subject.trim());
+                    }
+                }
+            }
+            head = new ArrayList<>();
+            head.add(Collections.singletonList("学号"));
+            head.add(Collections.singletonList("姓名"));
+            for (String subject : subjects) {
+                head.add(Collections.singletonList(subject));
+                head.add(Collections.singletonList(subject + "班级排名"));
+            }
+            head.add(Collections.singletonList("总分"));
+            head.add(Collections.singletonList("班级平均总分"));
+            head.add(Collections.singletonList("班级排名"));
+            head.add(Collections.singletonList("年级排名"));
+
+            DownloadUtils.prepare(response, examName + "-成绩单.xlsx", DownloadUtils.XLSX_CONTENT_TYPE);
+            try {
+                writer = EasyExcel.write(response.getOutputStream()).build();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<Object> toRow(StudentScoreReport report) {
+            List<Object> row = new ArrayList<>(head.size());
+            row.add(report.getStudentInfo().getStudentIdStr());
+            row.add(report.getStudentInfo().getName());
+            for (String subject : subjects) {
+                StudentScoreReport.SubjectScoreDetail detail = null;
+                for (StudentScoreReport.SubjectScoreDetail candidate : report.getSubjectDetails()) {
+                    if (subject.equals(candidate.getSubject())) {
+                        detail = candidate;
+                        break;
+                    }
+                }
+                row.add(detail != null ? detail.getStudentScore() : null);
+                row.add(detail != null ? detail.getClassRank() : null);
+            }
+            StudentScoreReport.TotalScoreDetails total = report.getTotalScoreDetails();
+            row.add(total.getStudentTotalScore());
+            row.add(total.getClassAverageTotalScore());
+            row.add(total.getClassTotalScoreRank());
+            row.add(total.getGradeTotalScoreRank());
+            return row;
+        }
+
+        private void flushSheet() {
+            String base = DownloadUtils.safeSheetName(currentClassName != null ? currentClassName : "未分班");
+            String sheetName = base;
+            int suffix = 2;
+            while (!usedSheetNames.add(sheetName)) {
+                String tail = "_" + suffix++;
+                sheetName = (base.length() + tail.length() > 31 ? base.substring(0, 31 - tail.length()) : base) + tail;
+            }
+            WriteSheet sheet = EasyExcel.writerSheet(sheetNo++, sheetName).head(head).build();
+            writer.write(rows, sheet);
+            rows.clear();
+        }
+
+        void finish() {
+            if (writer == null) {
+                // 没有任何成绩时输出一个只有表头的空工作簿
+                open(new StudentScoreReport());
+            }
+            if (!rows.isEmpty() || sheetNo == 0) {
+                flushSheet();
+            }
+            writer.finish();
+        }
+    }
+}
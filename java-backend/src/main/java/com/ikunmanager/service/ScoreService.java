@@ -1,13 +1,24 @@
 package com.ikunmanager.service;
 
 import com.github.pagehelper.PageInfo;
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.model.Score;
 import com.ikunmanager.dto.ScoreDetailDTO;
 import com.ikunmanager.dto.ExamTaken;
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.dto.StudentTrend;
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ScoreService {
     PageInfo<Score> getScoresByPage(Long studentId, Long examId, String subject, int pageNum, int pageSize);
+
+    /**
+     * 按 ListQuery 排序 / 分页查询成绩
+     * @param subject 科目，精确匹配
+     */
+    List<Score> findScoreList(Long studentId, Long examId, String subject, ListQuery query);
     Score getScoreById(Long id);
     Score addScore(Score score);
     Score updateScore(Score score);
@@ -26,4 +37,28 @@ public interface ScoreService {
      * @return 学生成绩报告 DTO
      */
     com.ikunmanager.dto.StudentScoreReport getStudentScoreReport(Long studentId, Long examId);
+
+    /**
+     * 批量生成某次考试所有学生的成绩报告，按班级、学号顺序逐个交给 consumer
+     * @param examId 考试ID
+     * @param classId 班级ID，为空时生成整场考试
+     * @param consumer 报告处理器
+     */
+    void forEachStudentScoreReport(Long examId, Long classId, Consumer<com.ikunmanager.dto.StudentScoreReport> consumer);
+
+    /**
+     * 学生历次考试的各科成绩、班级排名和年级排名趋势
+     * @param studentId 学生ID
+     * @return 按考试日期升序的趋势数据
+     */
+    StudentTrend getStudentTrend(Long studentId);
+
+    /**
+     * 从 Excel/CSV 批量导入某次考试的成绩，已存在的成绩会被覆盖
+     * @param examId 考试ID
+     * @param inputStream 文件内容
+     * @param csv 是否为 CSV 文件
+     * @return 导入结果（含逐行错误）
+     */
+    ImportResult importScores(Long examId, InputStream inputStream, boolean csv);
 } 
\ No newline at end of file
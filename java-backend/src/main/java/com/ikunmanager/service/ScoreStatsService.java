@@ -0,0 +1,319 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.CacheUtils;
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.dto.ClassSubjectMatrix;
+import com.ikunmanager.dto.ClassSubjectStatRow;
+import com.ikunmanager.dto.ExamSubjectRule;
+import com.ikunmanager.dto.ScoreRankingRow;
+import com.ikunmanager.dto.ScoreStatsDTO;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.mapper.ScoreMapper;
+import com.ikunmanager.model.Exam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 成绩分布统计：按（考试, 班级, 科目）维护 {@link ScoreDistribution}。
+ * <p>
+ * 每场考试首次查询时读一次 student_score 建立摘要；之后单条成绩的增删改只增量更新对应的
+ * 班级×科目分布，不再重新扫描。年级统计在查询时把各班分布合并得到。
+ * 批量写入（导入、批量删除）以及调班等影响面大的操作直接使整场考试的摘要失效。
+ */
+@Service
+public class ScoreStatsService {
+
+    private static final BigDecimal DEFAULT_FULL_SCORE = new BigDecimal("100");
+    private static final BigDecimal DEFAULT_PASS_RATIO = new BigDecimal("0.6");
+
+    @Autowired
+    private ScoreMapper scoreMapper;
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Value("${app.ranking.max-cached-exams:64}")
+    private int maxCachedExams;
+
+    private final ConcurrentHashMap<Long, ExamStats> exams = new ConcurrentHashMap<>();
+
+    /** 班级×科目矩阵缓存，该考试成绩有任何变化即失效 */
+    private final ConcurrentHashMap<Long, MatrixEntry> matrices = new ConcurrentHashMap<>();
+    /** invalidateAll 时加一；早于当前代构建的矩阵视为过期 */
+    private final AtomicLong matrixEpoch = new AtomicLong();
+
+    /**
+     * 查询分布统计
+     *
+     * @param examId         考试ID
+     * @param classId        班级ID，为空时返回全年级
+     * @param includeClasses 全年级查询时是否同时返回每个班级
+     * @param bucketWidth    直方图分段宽度（分）
+     * @param excellentRatio 优秀线占满分的比例
+     */
+    public List<ScoreStatsDTO> getStats(Long examId, Long classId, boolean includeClasses,
+                                        double bucketWidth, double excellentRatio) {
+        Exam exam = examMapper.findExamById(examId);
+        if (exam == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "考试不存在");
+        }
+        if (bucketWidth < 0.1) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), "分段宽度不能小于 0.1");
+        }
+        Map<String, ExamSubjectRule> rules = new HashMap<>();
+        for (ExamSubjectRule rule : examMapper.findSubjectRulesByExamId(examId)) {
+            rules.put(rule.getSubjectName(), rule);
+        }
+
+        ExamStats stats = getExamStats(examId);
+        List<ScoreStatsDTO> result = new ArrayList<>();
+        synchronized (stats) {
+            if (classId != null) {
+                Map<String, ScoreDistribution> bySubject = stats.cells.getOrDefault(classId, new TreeMap<>());
+                for (Map.Entry<String, ScoreDistribution> entry : bySubject.entrySet()) {
+                    result.add(toDto(examId, classId, entry.getKey(), entry.getValue(),
+                            rules.get(entry.getKey()), bucketWidth, excellentRatio));
+                }
+                return result;
+            }
+            // 年级 = 各班级分布之和
+            Map<String, ScoreDistribution> grade = new TreeMap<>();
+            for (Map<String, ScoreDistribution> bySubject : stats.cells.values()) {
+                for (Map.Entry<String, ScoreDistribution> entry : bySubject.entrySet()) {
+                    grade.computeIfAbsent(entry.getKey(), k -> new ScoreDistribution()).merge(entry.getValue());
+                }
+            }
+            for (Map.Entry<String, ScoreDistribution> entry : grade.entrySet()) {
+                result.add(toDto(examId, null, entry.getKey(), entry.getValue(),
+                        rules.get(entry.getKey()), bucketWidth, excellentRatio));
+            }
+            if (includeClasses) {
+                for (Map.Entry<Long, Map<String, ScoreDistribution>> byClass : stats.cells.entrySet()) {
+                    for (Map.Entry<String, ScoreDistribution> entry : byClass.getValue().entrySet()) {
+                        result.add(toDto(examId, byClass.getKey(), entry.getKey(), entry.getValue(),
+                                rules.get(entry.getKey()), bucketWidth, excellentRatio));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 考试的班级×科目对比矩阵（平均分、最高分、最低分、及格率），一次 GROUP BY 查询得到并按考试缓存
+     */
+    public ClassSubjectMatrix getClassSubjectMatrix(Long examId) {
+        MatrixEntry entry = matrices.get(examId);
+        if (entry == null || entry.epoch != matrixEpoch.get()) {
+            if (examMapper.findExamById(examId) == null) {
+                throw new CustomException(HttpStatus.NOT_FOUND.value(), "考试不存在");
+            }
+            if (entry != null) {
+                matrices.remove(examId, entry);
+            }
+            // 在 computeIfAbsent 内构建：提交后的 remove(examId) 会等正在进行的构建结束再移除，
+            // 基于提交前快照构建的矩阵不会留在缓存中
+            entry = matrices.computeIfAbsent(examId, id -> {
+                long epoch = matrixEpoch.get();
+                return new MatrixEntry(buildMatrix(id), epoch);
+            });
+            CacheUtils.evictLeastRecentlyUsed(matrices, maxCachedExams, e -> e.lastAccess);
+        }
+        entry.lastAccess = System.nanoTime();
+        return entry.matrix;
+    }
+
+    private ClassSubjectMatrix buildMatrix(Long examId) {
+        ClassSubjectMatrix matrix = new ClassSubjectMatrix();
+        matrix.setExamId(examId);
+        TreeSet<String> subjects = new TreeSet<>();
+        ClassSubjectMatrix.ClassRow current = null;
+        // 行已按班级、科目排序
+        for (ClassSubjectStatRow row : scoreMapper.findClassSubjectStatsByExam(examId)) {
+            if (current == null || !current.getClassId().equals(row.getClassId())) {
+                current = new ClassSubjectMatrix.ClassRow();
+                current.setClassId(row.getClassId());
+                current.setClassName(row.getClassName());
+                matrix.getClasses().add(current);
+            }
+            ClassSubjectMatrix.Cell cell = new ClassSubjectMatrix.Cell();
+            cell.setCount(row.getCount());
+            cell.setAverage(row.getAverage());
+            cell.setMax(row.getMaxScore());
+            cell.setMin(row.getMinScore());
+            cell.setPassRate(CacheUtils.round2(row.getPassCount() * 100.0 / row.getCount()));
+            current.getCells().put(row.getSubject(), cell);
+            subjects.add(row.getSubject());
+        }
+        matrix.getSubjects().addAll(subjects);
+        return matrix;
+    }
+
+    /**
+     * 写入前取得的时间戳，随后传给 {@link #scoreAdded}/{@link #scoreRemoved}，
+     * 用来判断已缓存的摘要是否可能已经包含了这次写入。
+     */
+    public long stamp() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 单条成绩新增后增量更新（事务提交后生效）
+     */
+    public void scoreAdded(long stamp, Long examId, Long classId, String subject, BigDecimal score) {
+        applyAfterCommit(stamp, examId, classId, subject, score, true);
+    }
+
+    /**
+     * 单条成绩删除后增量更新（事务提交后生效）
+     */
+    public void scoreRemoved(long stamp, Long examId, Long classId, String subject, BigDecimal score) {
+        applyAfterCommit(stamp, examId, classId, subject, score, false);
+    }
+
+    public void invalidate(Long examId) {
+        if (examId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            exams.remove(examId);
+            matrices.remove(examId);
+        });
+    }
+
+    public void invalidateAll() {
+        TransactionHooks.afterCommit(() -> {
+            exams.clear();
+            // clear 不会等待构建中的条目，靠代数让它们在下次读取时被丢弃
+            matrixEpoch.incrementAndGet();
+            matrices.clear();
+        });
+    }
+
+    private void applyAfterCommit(long stamp, Long examId, Long classId, String subject, BigDecimal score,
+                                  boolean add) {
+        if (examId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            matrices.remove(examId);
+            // computeIfPresent 会等正在进行的 load 完成，再按 loadedAt 判断；未缓存时下次查询自然读到最新数据
+            exams.computeIfPresent(examId, (id, stats) -> {
+                // 摘要在这次写入开始之后才加载完成时，可能已经包含了这条成绩，直接重建更稳妥
+                if (classId == null || subject == null || score == null || stats.loadedAt >= stamp) {
+                    return null;
+                }
+                int tenths = ExamRankingTable.toTenths(score);
+                synchronized (stats) {
+                    ScoreDistribution cell = stats.cells
+                            .computeIfAbsent(classId, k -> new TreeMap<>())
+                            .computeIfAbsent(subject, k -> new ScoreDistribution());
+                    if (add) {
+                        cell.add(tenths);
+                    } else if (!cell.remove(tenths)) {
+                        return null;
+                    }
+                }
+                return stats;
+            });
+        });
+    }
+
+    private ExamStats getExamStats(Long examId) {
+        ExamStats stats = exams.get(examId);
+        if (stats == null) {
+            stats = exams.computeIfAbsent(examId, this::load);
+            CacheUtils.evictLeastRecentlyUsed(exams, maxCachedExams, e -> e.lastAccess);
+        }
+        stats.lastAccess = System.nanoTime();
+        return stats;
+    }
+
+    private ExamStats load(Long examId) {
+        ExamStats stats = new ExamStats();
+        scoreMapper.findRankingRowsByExam(examId, context -> {
+            ScoreRankingRow row = context.getResultObject();
+            if (row.getScore() != null && row.getClassId() != null) {
+                stats.cells.computeIfAbsent(row.getClassId(), k -> new TreeMap<>())
+                        .computeIfAbsent(row.getSubject(), k -> new ScoreDistribution())
+                        .add(ExamRankingTable.toTenths(row.getScore()));
+            }
+        });
+        stats.loadedAt = System.nanoTime();
+        return stats;
+    }
+
+    private ScoreStatsDTO toDto(Long examId, Long classId, String subject, ScoreDistribution dist,
+                                ExamSubjectRule rule, double bucketWidth, double excellentRatio) {
+        BigDecimal fullScore = rule != null && rule.getFullScore() != null ? rule.getFullScore() : DEFAULT_FULL_SCORE;
+        BigDecimal passScore = rule != null && rule.getPassScore() != null
+                ? rule.getPassScore() : fullScore.multiply(DEFAULT_PASS_RATIO);
+        int fullTenths = ExamRankingTable.toTenths(fullScore);
+        int passTenths = ExamRankingTable.toTenths(passScore);
+        int excellentTenths = (int) Math.ceil(fullTenths * excellentRatio);
+
+        ScoreStatsDTO dto = new ScoreStatsDTO();
+        dto.setExamId(examId);
+        dto.setClassId(classId);
+        dto.setSubject(subject);
+        dto.setFullScore(fullTenths / 10.0);
+        dto.setPassScore(passTenths / 10.0);
+        dto.setExcellentScore(excellentTenths / 10.0);
+        dto.setCount(dist.count());
+        dto.setAverage(CacheUtils.round2(dist.mean()));
+        dto.setStandardDeviation(CacheUtils.round2(dist.standardDeviation()));
+        dto.setMin(CacheUtils.round2(dist.min()));
+        dto.setMax(CacheUtils.round2(dist.max()));
+        dto.setP10(CacheUtils.round2(dist.percentile(0.1)));
+        dto.setP50(CacheUtils.round2(dist.percentile(0.5)));
+        dto.setP90(CacheUtils.round2(dist.percentile(0.9)));
+        if (!dist.isEmpty()) {
+            dto.setPassRate(CacheUtils.round2(dist.countAtLeast(passTenths) * 100.0 / dist.count()));
+            dto.setExcellentRate(CacheUtils.round2(dist.countAtLeast(excellentTenths) * 100.0 / dist.count()));
+        }
+
+        int widthTenths = (int) Math.round(bucketWidth * 10);
+        long[] buckets = dist.histogram(widthTenths, fullTenths);
+        List<ScoreStatsDTO.Bucket> histogram = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            double from = i * widthTenths / 10.0;
+            double to = Math.min((i + 1) * widthTenths, fullTenths) / 10.0;
+            histogram.add(new ScoreStatsDTO.Bucket(from, to, buckets[i]));
+        }
+        dto.setHistogram(histogram);
+        return dto;
+    }
+
+    /**
+     * 一场考试的全部分布：班级ID → 科目 → 分布。读写都在该对象上加锁。
+     */
+    private static final class ExamStats {
+        private final Map<Long, Map<String, ScoreDistribution>> cells = new TreeMap<>();
+        private volatile long loadedAt;
+        private volatile long lastAccess = System.nanoTime();
+    }
+
+    private static final class MatrixEntry {
+        private final ClassSubjectMatrix matrix;
+        private final long epoch;
+        private volatile long lastAccess = System.nanoTime();
+
+        private MatrixEntry(ClassSubjectMatrix matrix, long epoch) {
+            this.matrix = matrix;
+            this.epoch = epoch;
+        }
+    }
+}
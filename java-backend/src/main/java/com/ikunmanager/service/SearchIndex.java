@@ -0,0 +1,335 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.dto.SearchHit;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 学生、员工、用户的内存搜索索引，供输入联想使用。
+ * <p>
+ * 每条记录有若干检索键（姓名、学号/工号/用户名、姓名拼音首字母），均转为小写。两套结构：
+ * <ul>
+ *     <li>按“键 + 槽位”排序的 TreeMap：前缀匹配只需一次定位再顺序取 k 条</li>
+ *     <li>单字和相邻两字（n-gram）到槽位的倒排表：前缀结果不足 k 条时，取查询中最稀有的
+ *     n-gram 的倒排表逐个校验子串，凑够 k 条即停</li>
+ * </ul>
+ * 更新记录时旧槽位只做删除标记，新内容写入新槽位；失效槽位超过一半时整体压缩。
+ * 写操作互斥，读操作共享读锁。
+ */
+public class SearchIndex {
+
+    public static final String STUDENT = "student";
+    public static final String EMPLOYEE = "employee";
+    public static final String USER = "user";
+
+    private static final Charset GB2312 = Charset.forName("GB2312");
+    // GB2312 一级汉字按拼音排序，各声母首字的区位码
+    private static final int[] INITIAL_BOUNDARIES = {1601, 1637, 1833, 2078, 2274, 2302, 2433, 2594, 2787, 3106,
+            3212, 3472, 3635, 3722, 3730, 3858, 4027, 4086, 4390, 4558, 4684, 4925, 5249, 5590};
+    private static final char[] INITIALS = "abcdefghjklmnopqrstwxyz".toCharArray();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<String, Integer> slotByEntity = new HashMap<>();
+    private final TreeMap<String, Integer> prefixIndex = new TreeMap<>();
+    private final Map<Integer, IntList> gramIndex = new HashMap<>();
+    private int deadSlots;
+
+    /**
+     * 新增或替换一条记录；title 为空时视为删除
+     */
+    public void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.type, item.id);
+            if (item.title == null || item.title.isEmpty()) {
+                return;
+            }
+            Set<String> keys = new LinkedHashSet<>();
+            addKey(keys, item.title);
+            addKey(keys, item.subtitle);
+            for (String extra : item.extraKeys) {
+                addKey(keys, extra);
+            }
+            addKey(keys, pinyinInitials(item.title));
+            insertLocked(new Doc(item.type, item.id, item.title, item.subtitle, keys.toArray(new String[0])));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String type, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(type, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 用一批记录替换某一类型的全部记录
+     */
+    public void replaceAll(String type, List<Item> items) {
+        lock.writeLock().lock();
+        try {
+            List<Long> stale = new ArrayList<>();
+            for (Doc doc : docs) {
+                if (doc != null && doc.type.equals(type)) {
+                    stale.add(doc.id);
+                }
+            }
+            for (Long id : stale) {
+                removeLocked(type, id);
+            }
+            for (Item item : items) {
+                put(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insertLocked(Doc doc) {
+        int slot = docs.size();
+        docs.add(doc);
+        slotByEntity.put(entityKey(doc.type, doc.id), slot);
+        Set<Integer> grams = new HashSet<>();
+        for (String key : doc.keys) {
+            prefixIndex.put(key + '\0' + slot, slot);
+            for (int i = 0; i < key.length(); i++) {
+                grams.add((int) key.charAt(i));
+                if (i + 1 < key.length()) {
+                    grams.add(bigram(key.charAt(i), key.charAt(i + 1)));
+                }
+            }
+        }
+        for (Integer gram : grams) {
+            gramIndex.computeIfAbsent(gram, g -> new IntList()).add(slot);
+        }
+    }
+
+    /**
+     * 查询前 limit 条：先完全匹配/前缀匹配，再子串匹配。type 为空时搜索全部类型
+     */
+    public List<SearchHit> search(String query, String type, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<SearchHit> hits = new ArrayList<>();
+        if (q.isEmpty() || limit <= 0) {
+            return hits;
+        }
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            // 1. 前缀：TreeMap 中以 q 开头的键连续排列，完全相同的键排在最前
+            for (Map.Entry<String, Integer> entry : prefixIndex.tailMap(q, true).entrySet()) {
+                if (!entry.getKey().startsWith(q) || hits.size() >= limit) {
+                    break;
+                }
+                collect(entry.getValue(), type, seen, hits);
+            }
+            if (hits.size() >= limit) {
+                return hits;
+            }
+            // 2. 子串：沿最稀有 n-gram 的倒排表校验
+            IntList postings = rarestPostings(q);
+            if (postings == null) {
+                return hits;
+            }
+            for (int i = 0; i < postings.size && hits.size() < limit; i++) {
+                int slot = postings.values[i];
+                Doc doc = docs.get(slot);
+                if (doc != null && doc.contains(q)) {
+                    collect(slot, type, seen, hits);
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByEntity.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 姓名的拼音首字母，如“张三” → “zs”。
+     * 只识别 GB2312 一级汉字（按拼音排序的 3755 个常用字），其它汉字跳过，字母数字原样保留。
+     */
+    static String pinyinInitials(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean hasChinese = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128) {
+                if (Character.isLetterOrDigit(c)) {
+                    sb.append(Character.toLowerCase(c));
+                }
+                continue;
+            }
+            byte[] bytes = String.valueOf(c).getBytes(GB2312);
+            if (bytes.length != 2) {
+                continue;
+            }
+            int code = ((bytes[0] & 0xff) - 160) * 100 + (bytes[1] & 0xff) - 160;
+            for (int j = 0; j < INITIALS.length; j++) {
+                if (code >= INITIAL_BOUNDARIES[j] && code < INITIAL_BOUNDARIES[j + 1]) {
+                    sb.append(INITIALS[j]);
+                    hasChinese = true;
+                    break;
+                }
+            }
+        }
+        return hasChinese ? sb.toString() : null;
+    }
+
+    private void collect(int slot, String type, Set<Integer> seen, List<SearchHit> hits) {
+        Doc doc = docs.get(slot);
+        if (doc == null || (type != null && !type.equals(doc.type)) || !seen.add(slot)) {
+            return;
+        }
+        hits.add(new SearchHit(doc.type, doc.id, doc.title, doc.subtitle));
+    }
+
+    private IntList rarestPostings(String q) {
+        IntList rarest = null;
+        if (q.length() == 1) {
+            return gramIndex.get((int) q.charAt(0));
+        }
+        for (int i = 0; i + 1 < q.length(); i++) {
+            IntList postings = gramIndex.get(bigram(q.charAt(i), q.charAt(i + 1)));
+            if (postings == null) {
+                return null; // 有 n-gram 从未出现，不可能匹配
+            }
+            if (rarest == null || postings.size < rarest.size) {
+                rarest = postings;
+            }
+        }
+        return rarest;
+    }
+
+    private void removeLocked(String type, Long id) {
+        Integer slot = slotByEntity.remove(entityKey(type, id));
+        if (slot == null) {
+            return;
+        }
+        Doc doc = docs.get(slot);
+        for (String key : doc.keys) {
+            prefixIndex.remove(key + '\0' + slot);
+        }
+        // 倒排表中的旧槽位在查询时按 null 跳过，压缩时清除
+        docs.set(slot, null);
+        deadSlots++;
+        if (deadSlots > 1024 && deadSlots > docs.size() / 2) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        List<Doc> live = new ArrayList<>(slotByEntity.size());
+        for (Doc doc : docs) {
+            if (doc != null) {
+                live.add(doc);
+            }
+        }
+        docs.clear();
+        slotByEntity.clear();
+        prefixIndex.clear();
+        gramIndex.clear();
+        deadSlots = 0;
+        for (Doc doc : live) {
+            insertLocked(doc);
+        }
+    }
+
+    private static void addKey(Set<String> keys, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            keys.add(value.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    private static String entityKey(String type, Long id) {
+        return type + ':' + id;
+    }
+
+    /**
+     * 待索引的一条记录：标题（姓名）、副标题（学号/工号/用户名）及其它检索键
+     */
+    public static final class Item {
+        private final String type;
+        private final Long id;
+        private final String title;
+        private final String subtitle;
+        private final String[] extraKeys;
+
+        public Item(String type, Long id, String title, String subtitle, String... extraKeys) {
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.subtitle = subtitle;
+            this.extraKeys = extraKeys;
+        }
+    }
+
+    private static final class Doc {
+        private final String type;
+        private final Long id;
+        private final String title;
+        private final String subtitle;
+        private final String[] keys;
+
+        Doc(String type, Long id, String title, String subtitle, String[] keys) {
+            this.type = type;
+            this.id = id;
+            this.title = title;
+            this.subtitle = subtitle;
+            this.keys = keys;
+        }
+
+        boolean contains(String q) {
+            for (String key : keys) {
+                if (key.contains(q)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
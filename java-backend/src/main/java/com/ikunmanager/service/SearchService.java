@@ -0,0 +1,231 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.dto.SearchHit;
+import com.ikunmanager.entity.Employee;
+import com.ikunmanager.mapper.EmployeeMapper;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.mapper.UserMapper;
+import com.ikunmanager.model.Student;
+import com.ikunmanager.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学生、员工、用户的输入联想。
+ * <p>
+ * 每种类型一个 {@link SearchIndex}，启动时全量加载。之后由 SearchIndexInterceptor 拦截三个 Mapper 的写操作，
+ * 事务提交后按 ID 重新加载受影响的记录；批量写入等无法确定 ID 的操作则在后台合并为一次该类型的全量重建。
+ * <p>
+ * 按 ID 重新加载和全量重建都在同一个后台线程上依次执行，不占用请求线程；
+ * 重建读取的快照也就不会覆盖掉在它之后提交、已经单独刷新过的记录。
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int MAX_LIMIT = 50;
+
+    // 批量写入后等待片刻再重建，连续多批导入只重建一次
+    private static final long REBUILD_DELAY_MS = 1000;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private EmployeeMapper employeeMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private final Map<String, SearchIndex> indexes = new LinkedHashMap<>();
+    private final Set<String> pendingRebuilds = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SearchService() {
+        indexes.put(SearchIndex.STUDENT, new SearchIndex());
+        indexes.put(SearchIndex.EMPLOYEE, new SearchIndex());
+        indexes.put(SearchIndex.USER, new SearchIndex());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        // 与之后的增量刷新在同一线程上执行；等待加载完成，保持启动后即可搜索
+        Future<?> loaded = executor.submit(() -> {
+            for (String type : indexes.keySet()) {
+                rebuild(type);
+            }
+        });
+        try {
+            loaded.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index load failed", e.getCause());
+        }
+        log.info("Search index loaded: {} students, {} employees, {} users in {} ms",
+                indexes.get(SearchIndex.STUDENT).size(), indexes.get(SearchIndex.EMPLOYEE).size(),
+                indexes.get(SearchIndex.USER).size(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 按姓名、学号/工号/用户名或姓名拼音首字母搜索；type 为空时依次搜索学生、员工、用户，合计返回至多 limit 条
+     */
+    public List<SearchHit> typeahead(String query, String type, int limit) {
+        int k = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        if (type != null && !type.isEmpty()) {
+            SearchIndex index = indexes.get(type);
+            return index != null ? index.search(query, null, k) : new ArrayList<>();
+        }
+        List<SearchHit> hits = new ArrayList<>(k);
+        for (SearchIndex index : indexes.values()) {
+            if (hits.size() >= k) {
+                break;
+            }
+            hits.addAll(index.search(query, null, k - hits.size()));
+        }
+        return hits;
+    }
+
+    /**
+     * 某类型的记录被写入；ids 为空表示无法确定受影响的记录，需全量重建。事务提交后生效
+     */
+    public void changed(String type, Collection<Long> ids) {
+        if (!indexes.containsKey(type)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            if (ids == null || ids.isEmpty()) {
+                scheduleRebuild(type);
+                return;
+            }
+            List<Long> changedIds = new ArrayList<>(ids);
+            executor.execute(() -> {
+                try {
+                    for (Long id : changedIds) {
+                        refresh(type, id);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh search index for {} {}, scheduling rebuild", type, changedIds, e);
+                    scheduleRebuild(type);
+                }
+            });
+        });
+    }
+
+    private void refresh(String type, Long id) {
+        SearchIndex index = indexes.get(type);
+        switch (type) {
+            case SearchIndex.STUDENT: {
+                Student student = studentMapper.findById(id);
+                if (student == null) {
+                    index.remove(type, id);
+                } else {
+                    index.put(itemOf(student));
+                    if (student.getUserId() != null) {
+                        // 用户的显示名取自关联学生的姓名
+                        refresh(SearchIndex.USER, student.getUserId());
+                    }
+                }
+                break;
+            }
+            case SearchIndex.EMPLOYEE: {
+                Employee employee = employeeMapper.findById(id);
+                if (employee == null) {
+                    index.remove(type, id);
+                } else {
+                    index.put(itemOf(employee));
+                }
+                break;
+            }
+            case SearchIndex.USER: {
+                User user = userMapper.findById(id);
+                if (user == null) {
+                    index.remove(type, id);
+                } else {
+                    index.put(itemOf(user));
+                }
+                break;
+            }
+            default:
+        }
+    }
+
+    private void scheduleRebuild(String type) {
+        if (pendingRebuilds.add(type)) {
+            executor.schedule(() -> {
+                pendingRebuilds.remove(type);
+                try {
+                    rebuild(type);
+                } catch (RuntimeException e) {
+                    log.error("Search index rebuild failed for {}", type, e);
+                }
+            }, REBUILD_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild(String type) {
+        List<SearchIndex.Item> items = new ArrayList<>();
+        switch (type) {
+            case SearchIndex.STUDENT:
+                for (Student student : studentMapper.findAll(null, null)) {
+                    items.add(itemOf(student));
+                }
+                break;
+            case SearchIndex.EMPLOYEE:
+                for (Employee employee : employeeMapper.findAll(null, null, null, null)) {
+                    items.add(itemOf(employee));
+                }
+                break;
+            case SearchIndex.USER:
+                for (User user : userMapper.findAll()) {
+                    items.add(itemOf(user));
+                }
+                break;
+            default:
+        }
+        indexes.get(type).replaceAll(type, items);
+    }
+
+    private static SearchIndex.Item itemOf(Student student) {
+        return new SearchIndex.Item(SearchIndex.STUDENT, student.getId(), student.getName(), student.getStudentId());
+    }
+
+    private static SearchIndex.Item itemOf(Employee employee) {
+        return new SearchIndex.Item(SearchIndex.EMPLOYEE, employee.getId(), employee.getName(), employee.getEmpId());
+    }
+
+    private static SearchIndex.Item itemOf(User user) {
+        String title = user.getDisplayName() != null && !user.getDisplayName().isEmpty()
+                ? user.getDisplayName() : user.getUsername();
+        return new SearchIndex.Item(SearchIndex.USER, user.getId(), title, user.getUsername());
+    }
+}
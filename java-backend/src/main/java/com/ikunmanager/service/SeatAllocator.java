@@ -0,0 +1,147 @@
+package com.ikunmanager.service;
+
+/**
+ * 考场座位分配。
+ * <p>
+ * 学生按班级计数排序后，各考场按行优先逐个座位填充：每个座位从“剩余人数最多、且与左侧、前方、
+ * 左前方、右前方四个相邻座位都不同班”的班级中取下一名学生，从而让各班交错就座。
+ * 只有参考班级不足 5 个等无法避开时，才退而选择剩余最多的班级，并计入同班相邻数。
+ * 全程只使用基本类型数组，每个座位的选择是 O(班级数)，5000 人、几十个班级在毫秒级完成。
+ */
+public final class SeatAllocator {
+
+    /** 单个考场的最大行数 / 列数 */
+    public static final int MAX_ROWS = 100;
+    public static final int MAX_COLS = 100;
+    /** 所有考场座位总数上限 */
+    public static final int MAX_TOTAL_SEATS = 100_000;
+
+    private SeatAllocator() {
+    }
+
+    /**
+     * @param classOf  每名学生的班级序号（0 .. classCount-1），同班学生按数组中的先后顺序入座
+     * @param roomRows 每个考场的行数
+     * @param roomCols 每个考场的列数
+     * @throws IllegalArgumentException 考场行列数超出 1..MAX_ROWS / 1..MAX_COLS、座位总数超过 MAX_TOTAL_SEATS
+     *                                  或少于学生人数
+     */
+    public static Plan allocate(int[] classOf, int classCount, int[] roomRows, int[] roomCols) {
+        int n = classOf.length;
+        long capacity = 0;
+        for (int r = 0; r < roomRows.length; r++) {
+            if (roomRows[r] < 1 || roomRows[r] > MAX_ROWS || roomCols[r] < 1 || roomCols[r] > MAX_COLS) {
+                throw new IllegalArgumentException("考场行数须在 1-" + MAX_ROWS + " 之间，列数须在 1-" + MAX_COLS + " 之间");
+            }
+            capacity += (long) roomRows[r] * roomCols[r];
+        }
+        if (capacity > MAX_TOTAL_SEATS) {
+            throw new IllegalArgumentException("座位总数 " + capacity + " 超过上限 " + MAX_TOTAL_SEATS);
+        }
+        if (capacity < n) {
+            throw new IllegalArgumentException("座位数 " + capacity + " 少于考生人数 " + n);
+        }
+
+        // 计数排序：byClass[start[k] .. start[k + 1]) 为班级 k 的学生下标，保持原有顺序
+        int[] start = new int[classCount + 1];
+        for (int i = 0; i < n; i++) {
+            start[classOf[i] + 1]++;
+        }
+        for (int k = 0; k < classCount; k++) {
+            start[k + 1] += start[k];
+        }
+        int[] next = new int[classCount];
+        int[] remaining = new int[classCount];
+        int[] byClass = new int[n];
+        for (int k = 0; k < classCount; k++) {
+            next[k] = start[k];
+            remaining[k] = start[k + 1] - start[k];
+        }
+        int[] fill = next.clone();
+        for (int i = 0; i < n; i++) {
+            byClass[fill[classOf[i]]++] = i;
+        }
+
+        Plan plan = new Plan(n);
+        int placed = 0;
+        for (int room = 0; room < roomRows.length && placed < n; room++) {
+            int rows = roomRows[room];
+            int cols = roomCols[room];
+            // 该考场每个座位上学生的班级，-1 表示空座
+            int[] grid = new int[rows * cols];
+            for (int seat = 0; seat < grid.length; seat++) {
+                if (placed == n) {
+                    grid[seat] = -1;
+                    continue;
+                }
+                int row = seat / cols;
+                int col = seat % cols;
+                int left = col > 0 ? grid[seat - 1] : -1;
+                int front = row > 0 ? grid[seat - cols] : -1;
+                int frontLeft = row > 0 && col > 0 ? grid[seat - cols - 1] : -1;
+                int frontRight = row > 0 && col + 1 < cols ? grid[seat - cols + 1] : -1;
+
+                int best = -1;
+                int fallback = -1;
+                for (int k = 0; k < classCount; k++) {
+                    if (remaining[k] == 0) {
+                        continue;
+                    }
+                    if (fallback < 0 || remaining[k] > remaining[fallback]) {
+                        fallback = k;
+                    }
+                    if (k != left && k != front && k != frontLeft && k != frontRight
+                            && (best < 0 || remaining[k] > remaining[best])) {
+                        best = k;
+                    }
+                }
+                int k = best >= 0 ? best : fallback;
+                if (best < 0) {
+                    plan.adjacentSameClass += (k == left ? 1 : 0) + (k == front ? 1 : 0)
+                            + (k == frontLeft ? 1 : 0) + (k == frontRight ? 1 : 0);
+                }
+                grid[seat] = k;
+                int student = byClass[next[k]++];
+                remaining[k]--;
+                plan.room[student] = room;
+                plan.row[student] = row;
+                plan.col[student] = col;
+                placed++;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 分配结果：下标与输入的学生下标一致，行、列从 0 开始
+     */
+    public static final class Plan {
+        private final int[] room;
+        private final int[] row;
+        private final int[] col;
+        private int adjacentSameClass;
+
+        Plan(int n) {
+            this.room = new int[n];
+            this.row = new int[n];
+            this.col = new int[n];
+        }
+
+        public int room(int student) {
+            return room[student];
+        }
+
+        public int row(int student) {
+            return row[student];
+        }
+
+        public int col(int student) {
+            return col[student];
+        }
+
+        /** 无法避开时产生的同班相邻（含斜前方）对数 */
+        public int adjacentSameClass() {
+            return adjacentSameClass;
+        }
+    }
+}
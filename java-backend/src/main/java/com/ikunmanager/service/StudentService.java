@@ -1,11 +1,30 @@
 package com.ikunmanager.service;
 
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.DownloadUtils;
+import com.ikunmanager.common.ListQuery;
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.mapper.ClassMapper;
+import com.ikunmanager.model.IkunClass;
 import com.ikunmanager.model.Student;
 import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.security.PrincipalCache;
+import com.ikunmanager.security.TokenRevocationService;
+import com.ikunmanager.service.impl.StudentImportListener;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class StudentService {
@@ -13,26 +32,76 @@ public class StudentService {
     @Autowired
     private StudentMapper studentMapper;
 
+    @Autowired
+    private ExamRankingEngine examRankingEngine;
+
+    @Autowired
+    private ScoreStatsService scoreStatsService;
+
+    @Autowired
+    private UpcomingExamIndex upcomingExamIndex;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private ClassMapper classMapper;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
     public List<Student> getAllStudents(String name, String studentId) {
         return studentMapper.findAll(name, studentId);
     }
 
+    // 分页 / 排序的学生列表，排序与键集条件由 query 决定
+    public List<Student> findStudentList(String name, String studentId, Long classId, ListQuery query) {
+        return studentMapper.findList(name, studentId, classId, query);
+    }
+
     public Student getStudentById(Long id) {
         return studentMapper.findById(id);
     }
 
     public Student addStudent(Student student) {
         studentMapper.insert(student);
+        // 用户信息中带有关联学生的姓名、学号
+        principalCache.invalidateUser(student.getUserId());
+        // 学生ID写在 token 声明中，关联变化后旧 token 作废
+        tokenRevocationService.revokeUserTokens(student.getUserId());
         return student;
     }
 
     public Student updateStudent(Student student) {
+        Student existing = studentMapper.findById(student.getId());
         studentMapper.update(student);
+        // 调班会改变所有考试中的班级排名
+        if (existing != null && !Objects.equals(existing.getClassId(), student.getClassId())) {
+            examRankingEngine.invalidateAll();
+            scoreStatsService.invalidateAll();
+            upcomingExamIndex.studentChanged(student.getId(), student.getClassId());
+        }
+        if (existing != null) {
+            principalCache.invalidateUser(existing.getUserId());
+        }
+        principalCache.invalidateUser(student.getUserId());
         return studentMapper.findById(student.getId());
     }
 
     public void deleteStudent(Long id) {
+        Student existing = studentMapper.findById(id);
         studentMapper.delete(id);
+        if (existing != null) {
+            principalCache.invalidateUser(existing.getUserId());
+            tokenRevocationService.revokeUserTokens(existing.getUserId());
+        }
+        // 该生的成绩会被级联删除
+        examRankingEngine.invalidateAll();
+        scoreStatsService.invalidateAll();
+        upcomingExamIndex.studentChanged(id, null);
     }
 
     public String getMaxStudentId() {
@@ -42,6 +111,68 @@ public class StudentService {
     public void batchAddStudents(List<Student> students) {
         if (students != null && !students.isEmpty()) {
             studentMapper.batchInsert(students);
+            students.forEach(student -> principalCache.invalidateUser(student.getUserId()));
+        }
+    }
+
+    /**
+     * 从 Excel/CSV 流式导入学生（学号 / 姓名 / 性别 / 班级 / 电话 / 邮箱），每 500 行写入一次，
+     * 学号格式不符、班级不存在、学号重复等错误逐行返回，不影响其它行
+     *
+     * @param updateExisting 为 true 时学号已存在的学生按表格更新（导出后修改再导入），否则这些行报错
+     */
+    public ImportResult importStudents(InputStream inputStream, boolean csv, boolean updateExisting) {
+        Map<String, Long> classIds = new HashMap<>();
+        for (IkunClass ikunClass : classMapper.findAll(null)) {
+            classIds.put(ikunClass.getClassName(), ikunClass.getId());
+        }
+        StudentImportListener listener = new StudentImportListener(
+                classIds, systemConfigService.getStudentIdPattern(), studentMapper, updateExisting);
+        try {
+            listener.read(inputStream, csv);
+        } finally {
+            // 更新模式下已有学生可能被调班或改名，与 updateStudent 一样失效相关缓存
+            if (!listener.getMovedStudents().isEmpty()) {
+                examRankingEngine.invalidateAll();
+                scoreStatsService.invalidateAll();
+                listener.getMovedStudents().forEach(upcomingExamIndex::studentChanged);
+            }
+            listener.getUpdatedUserIds().forEach(principalCache::invalidateUser);
+        }
+        return listener.getResult();
+    }
+
+    /**
+     * 导出学生名单（xlsx/csv），列与 {@link #importStudents} 相同，导出的文件修改后可按更新模式导入。
+     * 数据通过 MyBatis 游标逐行读取并立即写入响应，内存占用与行数无关。
+     *
+     * @param classId 班级ID（可选，不传导出全部学生）
+     * @param format  xlsx 或 csv
+     */
+    @Transactional(readOnly = true)
+    public void exportStudents(Long classId, String format, HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        // 必须在打开流式游标之前查询，流式读取期间连接不能执行其它语句
+        String fileName = "students";
+        if (classId != null) {
+            IkunClass ikunClass = classMapper.findById(classId);
+            if (ikunClass == null) {
+                throw new CustomException(HttpStatus.NOT_FOUND.value(), "班级不存在");
+            }
+            fileName += "-" + ikunClass.getClassName();
+        }
+        DownloadUtils.prepare(response, fileName + (csv ? ".csv" : ".xlsx"),
+                csv ? DownloadUtils.CSV_CONTENT_TYPE : DownloadUtils.XLSX_CONTENT_TYPE);
+        TableSink sink = csv
+                ? TableSink.csv(response.getOutputStream(), StudentImportListener.COLUMNS)
+                : TableSink.excel(response.getOutputStream(), StudentImportListener.COLUMNS, "学生");
+
+        try (Cursor<Student> cursor = studentMapper.cursorStudentsForExport(classId)) {
+            for (Student student : cursor) {
+                sink.row(Arrays.asList(student.getStudentId(), student.getName(), student.getGender(),
+                        student.getClassName(), student.getPhone(), student.getEmail()));
+            }
         }
+        sink.finish();
     }
-} 
\ No newline at end of file
+}
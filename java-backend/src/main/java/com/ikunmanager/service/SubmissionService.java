@@ -5,15 +5,16 @@ import com.ikunmanager.dto.SubmissionGradeRequest;
 import com.ikunmanager.dto.SubmissionRequest;
 import com.ikunmanager.dto.SubmissionResponse;
 import com.ikunmanager.entity.Submission;
+import com.ikunmanager.security.AuthenticatedUser;
 import java.util.List;
 
 public interface SubmissionService {
-    ApiResponse<Submission> submitAssignment(SubmissionRequest request, Long studentId);
-    ApiResponse<Submission> updateSubmission(Long id, SubmissionRequest request, Long studentId);
-    ApiResponse<Void> deleteSubmission(Long id, Long studentId);
+    ApiResponse<Submission> submitAssignment(SubmissionRequest request, AuthenticatedUser student);
+    ApiResponse<Submission> updateSubmission(Long id, SubmissionRequest request, AuthenticatedUser student);
+    ApiResponse<Void> deleteSubmission(Long id, AuthenticatedUser student);
     ApiResponse<SubmissionResponse> getSubmissionById(Long id);
     ApiResponse<List<SubmissionResponse>> getSubmissionsByAssignmentId(Long assignmentId);
-    ApiResponse<SubmissionResponse> getSubmissionByAssignmentIdAndStudentId(Long assignmentId, Long studentId);
+    ApiResponse<SubmissionResponse> getSubmissionByAssignmentIdAndStudentId(Long assignmentId, AuthenticatedUser student);
     ApiResponse<List<SubmissionResponse>> getSubmissionsByStudentId(Long studentId);
     ApiResponse<Submission> gradeSubmission(SubmissionGradeRequest request, Long teacherId);
 } 
\ No newline at end of file
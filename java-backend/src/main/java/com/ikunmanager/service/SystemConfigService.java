@@ -2,15 +2,21 @@ package com.ikunmanager.service;
 
 import com.ikunmanager.model.SystemConfig;
 import com.ikunmanager.repository.SystemConfigRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 @Service
 public class SystemConfigService {
 
+    private static final Logger log = LoggerFactory.getLogger(SystemConfigService.class);
+
     @Autowired
     private SystemConfigRepository systemConfigRepository;
 
@@ -23,6 +29,24 @@ public class SystemConfigService {
         return configMap;
     }
 
+    /**
+     * 学号校验正则；未配置或配置无效时返回 null（不校验）
+     */
+    public Pattern getStudentIdPattern() {
+        return systemConfigRepository.findByConfigKey("studentIdRegex")
+                .map(SystemConfig::getConfigValue)
+                .filter(regex -> !regex.trim().isEmpty())
+                .map(regex -> {
+                    try {
+                        return Pattern.compile(regex);
+                    } catch (PatternSyntaxException e) {
+                        log.warn("Invalid studentIdRegex '{}', skipping validation", regex);
+                        return null;
+                    }
+                })
+                .orElse(null);
+    }
+
     public Integer getCarouselInterval() {
         return systemConfigRepository.findByConfigKey("carouselInterval")
                 .map(config -> Integer.parseInt(config.getConfigValue()))
@@ -0,0 +1,147 @@
+package com.ikunmanager.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 导出文件的逐行写出（xlsx / csv），行写入后即可丢弃，内存占用与总行数无关。
+ */
+interface TableSink {
+
+    void row(List<Object> row) throws IOException;
+
+    void finish() throws IOException;
+
+    /**
+     * @param sheetName 工作表名，超过单表行数上限后依次为 sheetName2、sheetName3…
+     */
+    static TableSink excel(OutputStream out, List<String> columns, String sheetName) {
+        return new ExcelSink(out, columns, sheetName);
+    }
+
+    static TableSink csv(OutputStream out, List<String> columns) throws IOException {
+        return new CsvSink(out, columns);
+    }
+
+    /**
+     * EasyExcel 按批写出，底层使用 SXSSF，仅在内存中保留少量行。
+     */
+    final class ExcelSink implements TableSink {
+        /** Excel 单个工作表最多 1048576 行，留出表头后超过此行数换新工作表 */
+        private static final int EXCEL_ROWS_PER_SHEET = 1_000_000;
+        /** 每攒够这么多行交给 EasyExcel 写出一次 */
+        static final int EXCEL_BATCH_SIZE = 1000;
+
+        private final ExcelWriter writer;
+        private final String sheetName;
+        private final List<List<String>> head = new ArrayList<>();
+        private final List<List<Object>> buffer = new ArrayList<>(EXCEL_BATCH_SIZE);
+        private WriteSheet sheet;
+        private int sheetNo;
+        private int rowsInSheet;
+
+        private ExcelSink(OutputStream out, List<String> columns, String sheetName) {
+            for (String column : columns) {
+                head.add(Collections.singletonList(column));
+            }
+            this.sheetName = sheetName;
+            this.writer = EasyExcel.write(out).build();
+            this.sheet = newSheet();
+        }
+
+        private WriteSheet newSheet() {
+            int no = sheetNo++;
+            return EasyExcel.writerSheet(no, no == 0 ? sheetName : sheetName + (no + 1)).head(head).build();
+        }
+
+        @Override
+        public void row(List<Object> row) {
+            if (rowsInSheet == EXCEL_ROWS_PER_SHEET) {
+                flush();
+                sheet = newSheet();
+                rowsInSheet = 0;
+            }
+            buffer.add(row);
+            rowsInSheet++;
+            if (buffer.size() == EXCEL_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /** 尚未交给 EasyExcel 的行数，始终小于 EXCEL_BATCH_SIZE */
+        int bufferedRows() {
+            return buffer.size();
+        }
+
+        private void flush() {
+            // 空列表也要写一次，保证只有表头的工作表能被创建
+            writer.write(buffer, sheet);
+            buffer.clear();
+        }
+
+        @Override
+        public void finish() {
+            if (!buffer.isEmpty() || rowsInSheet == 0) {
+                flush();
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * CSV 带 UTF-8 BOM，方便 Excel 直接打开中文内容。
+     */
+    final class CsvSink implements TableSink {
+        private final Writer writer;
+
+        private CsvSink(OutputStream out, List<String> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write('\uFEFF');
+            writeLine(new ArrayList<>(columns));
+        }
+
+        @Override
+        public void row(List<Object> row) throws IOException {
+            writeLine(row);
+        }
+
+        private void writeLine(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values.get(i);
+                if (value instanceof BigDecimal) {
+                    writer.write(((BigDecimal) value).toPlainString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
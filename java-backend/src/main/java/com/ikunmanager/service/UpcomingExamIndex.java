@@ -0,0 +1,193 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.common.TransactionHooks;
+import com.ikunmanager.dto.ExamTaken;
+import com.ikunmanager.dto.UpcomingExamRow;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.model.Exam;
+import com.ikunmanager.model.Student;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 班级 → 即将进行的考试（按考试时间升序）的内存索引，供学生门户的“即将考试”组件使用。
+ * <p>
+ * 启动时加载一次；ExamService 增删改考试后只更新该考试涉及的班级。每个班级的列表是不可变的，
+ * 读取时若队首考试已经开始，就把已过期的前缀截掉并替换。学生所在班级同样缓存在内存中，
+ * 只有未缓存的学生才会查一次数据库。
+ */
+@Component
+public class UpcomingExamIndex {
+
+    private static final Comparator<Entry> BY_DATE =
+            Comparator.comparing((Entry e) -> e.examDate).thenComparing(e -> e.exam.getExamId());
+
+    @Autowired
+    private ExamMapper examMapper;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    private final ConcurrentHashMap<Long, List<Entry>> byClass = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> studentClass = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, List<Entry>> lists = new HashMap<>();
+        for (UpcomingExamRow row : examMapper.findUpcomingExamClassRows()) {
+            lists.computeIfAbsent(row.getClassId(), k -> new ArrayList<>()).add(toEntry(row));
+        }
+        for (Map.Entry<Long, List<Entry>> entry : lists.entrySet()) {
+            entry.getValue().sort(BY_DATE);
+            byClass.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        for (Student student : studentMapper.findAllClassAssignments()) {
+            if (student.getClassId() != null) {
+                studentClass.put(student.getId(), student.getClassId());
+            }
+        }
+    }
+
+    /**
+     * 学生所在班级即将进行的考试
+     */
+    public List<ExamTaken> upcomingForStudent(Long studentId) {
+        Long classId = studentClass.get(studentId);
+        if (classId == null) {
+            Student student = studentMapper.findById(studentId);
+            if (student == null || student.getClassId() == null) {
+                return Collections.emptyList();
+            }
+            classId = student.getClassId();
+            studentClass.put(studentId, classId);
+        }
+        return upcomingForClass(classId);
+    }
+
+    public List<ExamTaken> upcomingForClass(Long classId) {
+        List<Entry> entries = byClass.get(classId);
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int firstUpcoming = 0;
+        while (firstUpcoming < entries.size() && entries.get(firstUpcoming).examDate.isBefore(now)) {
+            firstUpcoming++;
+        }
+        if (firstUpcoming > 0) {
+            List<Entry> remaining = Collections.unmodifiableList(new ArrayList<>(entries.subList(firstUpcoming, entries.size())));
+            byClass.replace(classId, entries, remaining);
+            entries = remaining;
+        }
+        List<ExamTaken> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            result.add(entry.exam);
+        }
+        return result;
+    }
+
+    /**
+     * 考试新增或修改后更新索引（事务提交后生效），exam 需带有 classIds
+     */
+    public void examChanged(Exam exam) {
+        Entry entry = toEntry(exam);
+        List<Long> classIds = exam.getClassIds() != null ? new ArrayList<>(exam.getClassIds()) : Collections.emptyList();
+        TransactionHooks.afterCommit(() -> {
+            removeExam(exam.getId());
+            if (entry.examDate == null || entry.examDate.isBefore(LocalDateTime.now())) {
+                return;
+            }
+            for (Long classId : classIds) {
+                byClass.compute(classId, (k, current) -> {
+                    List<Entry> updated = current != null ? new ArrayList<>(current) : new ArrayList<>();
+                    updated.add(entry);
+                    updated.sort(BY_DATE);
+                    return Collections.unmodifiableList(updated);
+                });
+            }
+        });
+    }
+
+    public void examDeleted(Long examId) {
+        TransactionHooks.afterCommit(() -> removeExam(examId));
+    }
+
+    /**
+     * 学生调班或删除后更新学生 → 班级缓存；classId 为空表示删除
+     */
+    public void studentChanged(Long studentId, Long classId) {
+        TransactionHooks.afterCommit(() -> {
+            if (classId == null) {
+                studentClass.remove(studentId);
+            } else {
+                studentClass.put(studentId, classId);
+            }
+        });
+    }
+
+    private void removeExam(Long examId) {
+        for (Long classId : byClass.keySet()) {
+            byClass.computeIfPresent(classId, (k, current) -> {
+                boolean contains = false;
+                for (Entry e : current) {
+                    if (e.exam.getExamId().equals(examId)) {
+                        contains = true;
+                        break;
+                    }
+                }
+                if (!contains) {
+                    return current;
+                }
+                List<Entry> updated = new ArrayList<>(current.size());
+                for (Entry e : current) {
+                    if (!e.exam.getExamId().equals(examId)) {
+                        updated.add(e);
+                    }
+                }
+                return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+            });
+        }
+    }
+
+    private static Entry toEntry(UpcomingExamRow row) {
+        ExamTaken exam = new ExamTaken();
+        exam.setExamId(row.getExamId());
+        exam.setExamName(row.getExamName());
+        exam.setExamType(row.getExamType());
+        exam.setExamDate(row.getExamDate().toLocalDate());
+        exam.setSubjects(row.getSubjects());
+        return new Entry(row.getExamDate(), exam);
+    }
+
+    private static Entry toEntry(Exam source) {
+        ExamTaken exam = new ExamTaken();
+        exam.setExamId(source.getId());
+        exam.setExamName(source.getExamName());
+        exam.setExamType(source.getExamType());
+        exam.setExamDate(source.getExamDate() != null ? source.getExamDate().toLocalDate() : null);
+        exam.setSubjects(source.getSubjects());
+        return new Entry(source.getExamDate(), exam);
+    }
+
+    private static final class Entry {
+        private final LocalDateTime examDate;
+        private final ExamTaken exam;
+
+        Entry(LocalDateTime examDate, ExamTaken exam) {
+            this.examDate = examDate;
+            this.exam = exam;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ikunmanager.service.impl;
 
 import com.ikunmanager.common.ApiResponse;
 import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.LinkDiff;
 import com.ikunmanager.dto.AssignmentCreateRequest;
 import com.ikunmanager.dto.AssignmentResponse;
 import com.ikunmanager.entity.Assignment;
@@ -12,6 +13,7 @@ import com.ikunmanager.mapper.AssignmentMapper;
 import com.ikunmanager.mapper.ClassMapper;
 import com.ikunmanager.mapper.UserMapper;
 import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.security.AuthenticatedUser;
 import com.ikunmanager.service.AssignmentService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +23,8 @@ import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -52,15 +56,10 @@ public class AssignmentServiceImpl implements AssignmentService {
             throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "创建作业失败");
         }
 
-        // Handle assignment-class links
-        if (request.getClassIds() != null && !request.getClassIds().isEmpty()) {
-            for (Long classId : request.getClassIds()) {
-                // Optionally, check if classId exists
-                if (classMapper.findById(classId) == null) {
-                    throw new CustomException(HttpStatus.BAD_REQUEST, "班级ID " + classId + " 不存在");
-                }
-                assignmentMapper.insertAssignmentClassLink(assignment.getId(), classId);
-            }
+        // Handle assignment-class links: validate in one query, insert in one statement
+        List<Long> classIds = validateClassIds(request.getClassIds());
+        if (!classIds.isEmpty()) {
+            assignmentMapper.batchInsertAssignmentClassLinks(assignment.getId(), classIds);
         }
 
         return ApiResponse.ok("作业创建成功", assignment);
@@ -87,15 +86,14 @@ public class AssignmentServiceImpl implements AssignmentService {
             throw new CustomException(HttpStatus.INTERNAL_SERVER_ERROR, "更新作业失败");
         }
 
-        // Update assignment-class links
-        assignmentMapper.deleteAssignmentClassLinkByAssignmentId(id);
-        if (request.getClassIds() != null && !request.getClassIds().isEmpty()) {
-            for (Long classId : request.getClassIds()) {
-                if (classMapper.findById(classId) == null) {
-                    throw new CustomException(HttpStatus.BAD_REQUEST, "班级ID " + classId + " 不存在");
-                }
-                assignmentMapper.insertAssignmentClassLink(id, classId);
-            }
+        // Update assignment-class links: only apply the difference
+        List<Long> classIds = validateClassIds(request.getClassIds());
+        LinkDiff<Long> diff = LinkDiff.of(assignmentMapper.selectClassIdsByAssignmentId(id), classIds);
+        if (!diff.getToRemove().isEmpty()) {
+            assignmentMapper.deleteAssignmentClassLinks(id, diff.getToRemove());
+        }
+        if (!diff.getToAdd().isEmpty()) {
+            assignmentMapper.batchInsertAssignmentClassLinks(id, diff.getToAdd());
         }
 
         return ApiResponse.ok("作业更新成功", existingAssignment);
@@ -152,13 +150,13 @@ public class AssignmentServiceImpl implements AssignmentService {
     }
 
     @Override
-    public ApiResponse<List<AssignmentResponse>> getAssignmentsByStudentId(Long studentId) {
-        User studentUser = userMapper.findById(studentId);
-        if (studentUser == null || !"student".equals(studentUser.getRole())) {
+    public ApiResponse<List<AssignmentResponse>> getAssignmentsForStudent(AuthenticatedUser student) {
+        // 角色与学生ID来自 token 中已签名的声明
+        if (!student.isStudent()) {
             throw new CustomException(HttpStatus.NOT_FOUND, "学生用户不存在或角色不符");
         }
 
-        Student studentEntity = studentMapper.selectByUserId(studentId);
+        Student studentEntity = student.getStudentId() != null ? studentMapper.findById(student.getStudentId()) : null;
         if (studentEntity == null) {
             throw new CustomException(HttpStatus.NOT_FOUND, "未找到该学生的用户信息");
         }
@@ -199,4 +197,20 @@ public class AssignmentServiceImpl implements AssignmentService {
 
         return response;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 去重并用一次查询校验班级ID，一次性报告所有不存在的ID
+     */
+    private List<Long> validateClassIds(List<Long> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> classIds = new ArrayList<>(new LinkedHashSet<>(requested));
+        List<Long> missing = LinkDiff.missing(classIds, classMapper.findExistingIds(classIds));
+        if (!missing.isEmpty()) {
+            String ids = missing.stream().map(String::valueOf).collect(Collectors.joining(", "));
+            throw new CustomException(HttpStatus.BAD_REQUEST, "班级ID " + ids + " 不存在");
+        }
+        return classIds;
+    }
+}
@@ -0,0 +1,254 @@
+package com.ikunmanager.service.impl;
+
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.exception.ExcelAnalysisStopException;
+import com.ikunmanager.dto.ExamSubjectRule;
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.mapper.ExamMapper;
+import com.ikunmanager.mapper.ScoreMapper;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.model.Score;
+import com.ikunmanager.model.Student;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 成绩导入的逐行监听器，支持两种表格格式：
+ * <ul>
+ *     <li>长表：学号 / 科目 / 成绩，每行一个成绩</li>
+ *     <li>宽表：学号 + 每个科目一列（列名与考试科目名一致），每行一名学生</li>
+ * </ul>
+ * 行在内存中只攒够一批（约 {@link #BATCH_SIZE} 个成绩）：批内学号一次性查询，
+ * 再以 INSERT ... ON DUPLICATE KEY UPDATE 多行写入，避免逐行往返数据库。
+ */
+class ScoreImportListener extends AnalysisEventListener<Map<Integer, String>> {
+
+    static final int BATCH_SIZE = 500;
+
+    private final Long examId;
+    private final Map<String, ExamSubjectRule> rules;
+    private final StudentMapper studentMapper;
+    private final ScoreMapper scoreMapper;
+    private final ExamMapper examMapper;
+    private final ImportResult result = new ImportResult();
+
+    private Integer studentNoColumn;
+    private Integer subjectColumn;
+    private Integer scoreColumn;
+    private final Map<Integer, String> subjectColumns = new HashMap<>();
+    private String headError;
+    private boolean examPurging;
+
+    private final List<PendingRow> pending = new ArrayList<>();
+    private int pendingScores;
+    private int writtenScores;
+
+    ScoreImportListener(Long examId, Map<String, ExamSubjectRule> rules,
+                        StudentMapper studentMapper, ScoreMapper scoreMapper, ExamMapper examMapper) {
+        this.examId = examId;
+        this.rules = rules;
+        this.studentMapper = studentMapper;
+        this.scoreMapper = scoreMapper;
+        this.examMapper = examMapper;
+    }
+
+    @Override
+    public void invokeHeadMap(Map<Integer, String> headMap, AnalysisContext context) {
+        for (Map.Entry<Integer, String> entry : headMap.entrySet()) {
+            String name = normalize(entry.getValue());
+            if (name == null) {
+                continue;
+            }
+            if ("学号".equals(name)) {
+                studentNoColumn = entry.getKey();
+            } else if ("科目".equals(name)) {
+                subjectColumn = entry.getKey();
+            } else if ("成绩".equals(name) || "分数".equals(name)) {
+                scoreColumn = entry.getKey();
+            } else if (rules.containsKey(name)) {
+                subjectColumns.put(entry.getKey(), name);
+            }
+        }
+        if (studentNoColumn == null) {
+            headError = "表头缺少“学号”列";
+        } else if (!isLongFormat() && subjectColumns.isEmpty()) {
+            headError = "表头需包含“科目”“成绩”列，或至少一个与考试科目同名的列";
+        }
+        if (headError != null) {
+            throw new ExcelAnalysisStopException(headError);
+        }
+    }
+
+    @Override
+    public void invoke(Map<Integer, String> data, AnalysisContext context) {
+        int rowNo = context.readRowHolder().getRowIndex() + 1;
+        result.setTotalRows(result.getTotalRows() + 1);
+
+        String studentNo = normalize(data.get(studentNoColumn));
+        if (studentNo == null) {
+            result.addError(rowNo, "学号为空");
+            return;
+        }
+        PendingRow row = new PendingRow(rowNo, studentNo);
+        String error = isLongFormat() ? parseLongRow(data, row) : parseWideRow(data, row);
+        if (error != null) {
+            result.addError(rowNo, error);
+            return;
+        }
+        pending.add(row);
+        pendingScores += row.subjects.size();
+        if (pendingScores >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+    }
+
+    ImportResult getResult() {
+        return result;
+    }
+
+    String getHeadError() {
+        return headError;
+    }
+
+    /** 导入过程中考试被标记为删除中，读取已提前停止 */
+    boolean isExamPurging() {
+        return examPurging;
+    }
+
+    /** 已写入数据库的成绩条数（中途失败时也用于判断是否需要失效缓存） */
+    int getWrittenScores() {
+        return writtenScores;
+    }
+
+    private boolean isLongFormat() {
+        return subjectColumn != null && scoreColumn != null;
+    }
+
+    private String parseLongRow(Map<Integer, String> data, PendingRow row) {
+        String subject = normalize(data.get(subjectColumn));
+        if (subject == null) {
+            return "科目为空";
+        }
+        ExamSubjectRule rule = rules.get(subject);
+        if (rule == null) {
+            return "科目“" + subject + "”不属于本次考试";
+        }
+        String raw = normalize(data.get(scoreColumn));
+        if (raw == null) {
+            return "成绩为空";
+        }
+        String error = parseScore(raw, rule, row);
+        return error != null ? subject + error : null;
+    }
+
+    private String parseWideRow(Map<Integer, String> data, PendingRow row) {
+        for (Map.Entry<Integer, String> column : subjectColumns.entrySet()) {
+            String raw = normalize(data.get(column.getKey()));
+            if (raw == null) {
+                continue; // 空单元格表示该科未录入
+            }
+            String error = parseScore(raw, rules.get(column.getValue()), row);
+            if (error != null) {
+                return column.getValue() + error;
+            }
+        }
+        return row.subjects.isEmpty() ? "未填写任何成绩" : null;
+    }
+
+    private String parseScore(String raw, ExamSubjectRule rule, PendingRow row) {
+        BigDecimal score;
+        try {
+            score = new BigDecimal(raw);
+        } catch (NumberFormatException e) {
+            return "成绩“" + raw + "”不是有效数字";
+        }
+        if (score.stripTrailingZeros().scale() > 1) {
+            return "成绩最多保留一位小数";
+        }
+        if (score.signum() < 0 || (rule.getFullScore() != null && score.compareTo(rule.getFullScore()) > 0)) {
+            return "成绩 " + raw + " 超出范围 0-" + rule.getFullScore().stripTrailingZeros().toPlainString();
+        }
+        row.subjects.add(rule.getSubjectName());
+        row.scores.add(score);
+        return null;
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // 导入期间考试可能被删除：每批写入前确认考试不在删除中，否则停止读取
+        Integer status = examMapper.findStatusById(examId);
+        if (status == null || status == 3) {
+            examPurging = true;
+            pending.clear();
+            throw new ExcelAnalysisStopException("考试正在删除");
+        }
+        Set<String> studentNos = new HashSet<>();
+        for (PendingRow row : pending) {
+            studentNos.add(row.studentNo);
+        }
+        Map<String, Long> studentIds = new HashMap<>();
+        for (Student student : studentMapper.findByStudentNos(studentNos)) {
+            studentIds.put(student.getStudentId(), student.getId());
+        }
+
+        List<Score> batch = new ArrayList<>(pendingScores);
+        for (PendingRow row : pending) {
+            Long studentId = studentIds.get(row.studentNo);
+            if (studentId == null) {
+                result.addError(row.rowNo, "学号“" + row.studentNo + "”不存在");
+                continue;
+            }
+            for (int i = 0; i < row.subjects.size(); i++) {
+                Score score = new Score();
+                score.setStudentId(studentId);
+                score.setExamId(examId);
+                score.setSubject(row.subjects.get(i));
+                score.setScore(row.scores.get(i));
+                batch.add(score);
+            }
+            result.setSuccessRows(result.getSuccessRows() + 1);
+        }
+        pending.clear();
+        pendingScores = 0;
+
+        for (int from = 0; from < batch.size(); from += BATCH_SIZE) {
+            List<Score> chunk = batch.subList(from, Math.min(from + BATCH_SIZE, batch.size()));
+            scoreMapper.batchUpsert(chunk);
+            writtenScores += chunk.size();
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.replace("\uFEFF", "").trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static final class PendingRow {
+        private final int rowNo;
+        private final String studentNo;
+        private final List<String> subjects = new ArrayList<>(1);
+        private final List<BigDecimal> scores = new ArrayList<>(1);
+
+        PendingRow(int rowNo, String studentNo) {
+            this.rowNo = rowNo;
+            this.studentNo = studentNo;
+        }
+    }
+}
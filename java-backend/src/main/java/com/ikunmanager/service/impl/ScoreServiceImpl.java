@@ -1,20 +1,52 @@
 package com.ikunmanager.service.impl;
 
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.read.builder.ExcelReaderBuilder;
+import com.alibaba.excel.support.ExcelTypeEnum;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.ikunmanager.common.CacheUtils;
+import com.ikunmanager.common.CustomException;
+import com.ikunmanager.common.ListQuery;
 import com.ikunmanager.dto.ScoreDetailDTO;
 import com.ikunmanager.dto.ExamTaken;
+import com.ikunmanager.dto.ExamSubjectRule;
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.dto.StudentScoreReport;
+import com.ikunmanager.dto.StudentTrend;
+import com.ikunmanager.dto.StudentTrendRow;
 import com.ikunmanager.mapper.ScoreMapper;
+import com.ikunmanager.model.Exam;
 import com.ikunmanager.model.Score;
+import com.ikunmanager.model.Student;
+import com.ikunmanager.service.ExamRankingEngine;
+import com.ikunmanager.service.ExamRankingTable;
 import com.ikunmanager.service.ScoreService;
+import com.ikunmanager.service.ScoreStatsService;
+import com.ikunmanager.service.UpcomingExamIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ScoreServiceImpl implements ScoreService {
 
+    /** 批量删除时每条 DELETE 的 IN 列表上限 */
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     @Autowired
     private ScoreMapper scoreMapper;
 
@@ -22,10 +54,16 @@ public class ScoreServiceImpl implements ScoreService {
     private com.ikunmanager.mapper.StudentMapper studentMapper;
 
     @Autowired
-    private com.ikunmanager.mapper.ClassMapper classMapper;
+    private com.ikunmanager.mapper.ExamMapper examMapper;
 
     @Autowired
-    private com.ikunmanager.mapper.ExamMapper examMapper;
+    private ExamRankingEngine examRankingEngine;
+
+    @Autowired
+    private ScoreStatsService scoreStatsService;
+
+    @Autowired
+    private UpcomingExamIndex upcomingExamIndex;
 
     @Override
     public PageInfo<Score> getScoresByPage(Long studentId, Long examId, String subject, int pageNum, int pageSize) {
@@ -34,6 +72,11 @@ public class ScoreServiceImpl implements ScoreService {
         return new PageInfo<>(scores);
     }
 
+    @Override
+    public List<Score> findScoreList(Long studentId, Long examId, String subject, ListQuery query) {
+        return scoreMapper.findScoreList(studentId, examId, subject, query);
+    }
+
     @Override
     public Score getScoreById(Long id) {
         return scoreMapper.findById(id);
@@ -41,24 +84,173 @@ public class ScoreServiceImpl implements ScoreService {
 
     @Override
     public Score addScore(Score score) {
+        requireWritableExam(score.getExamId());
+        long stamp = scoreStatsService.stamp();
+        Long classId = classIdOf(score.getStudentId());
         scoreMapper.insert(score);
+        onScoreWritten(stamp, null, null, score, classId);
         return score;
     }
 
     @Override
     public Score updateScore(Score score) {
-        scoreMapper.update(score);
+        requireWritableExam(score.getExamId());
+        long stamp = scoreStatsService.stamp();
+        Score existing = score.getId() != null ? scoreMapper.findWithClassById(score.getId()) : null;
+        if (existing == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "成绩不存在");
+        }
+        if (!Objects.equals(existing.getExamId(), score.getExamId())) {
+            requireWritableExam(existing.getExamId());
+        }
+        // 一般只改分数，学生不变时沿用修改前查到的班级
+        Long classId = Objects.equals(existing.getStudentId(), score.getStudentId())
+                ? existing.getClassId() : classIdOf(score.getStudentId());
+        if (scoreMapper.update(score) == 0) {
+            // 查询之后被并发删除
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "成绩不存在");
+        }
+        onScoreWritten(stamp, existing, existing.getClassId(), score, classId);
         return score;
     }
 
     @Override
     public void deleteScore(Long id) {
+        long stamp = scoreStatsService.stamp();
+        Score existing = scoreMapper.findWithClassById(id);
         scoreMapper.deleteById(id);
+        onScoreWritten(stamp, existing, existing != null ? existing.getClassId() : null, null, null);
     }
 
     @Override
     public void batchDeleteScores(List<Long> ids) {
-        scoreMapper.deleteByIds(ids);
+        // 每条语句的 IN 列表至多 DELETE_CHUNK_SIZE 个，且每批单独提交，避免长时间持锁
+        Set<Long> examIds = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+            examIds.addAll(scoreMapper.findExamIdsByIds(chunk));
+            scoreMapper.deleteByIds(chunk);
+        }
+        examIds.forEach(this::onScoresChanged);
+    }
+
+    @Override
+    public StudentTrend getStudentTrend(Long studentId) {
+        if (studentMapper.findById(studentId) == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "学生不存在");
+        }
+        StudentTrend trend = new StudentTrend();
+        trend.setStudentId(studentId);
+        // 行已按考试日期排序，LinkedHashMap 保持该顺序
+        Map<Long, StudentTrend.ExamPoint> byExam = new LinkedHashMap<>();
+        for (StudentTrendRow row : scoreMapper.findSubjectTrendByStudentId(studentId)) {
+            StudentTrend.ExamPoint point = byExam.computeIfAbsent(row.getExamId(), id -> {
+                StudentTrend.ExamPoint p = new StudentTrend.ExamPoint();
+                p.setExamId(id);
+                p.setExamName(row.getExamName());
+                p.setExamType(row.getExamType());
+                p.setExamDate(row.getExamDate());
+                return p;
+            });
+            StudentTrend.SubjectPoint subject = new StudentTrend.SubjectPoint();
+            subject.setSubject(row.getSubject());
+            subject.setScore(row.getScore());
+            subject.setClassRank(row.getClassRank());
+            subject.setGradeRank(row.getGradeRank());
+            point.getSubjects().add(subject);
+        }
+        for (StudentTrendRow row : scoreMapper.findTotalTrendByStudentId(studentId)) {
+            StudentTrend.ExamPoint point = byExam.get(row.getExamId());
+            if (point != null) {
+                point.setTotalScore(row.getScore());
+                point.setClassTotalRank(row.getClassRank());
+                point.setGradeTotalRank(row.getGradeRank());
+            }
+        }
+        trend.getExams().addAll(byExam.values());
+        return trend;
+    }
+
+    @Override
+    public ImportResult importScores(Long examId, InputStream inputStream, boolean csv) {
+        requireWritableExam(examId);
+        Exam exam = examMapper.findExamById(examId);
+        if (exam == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "考试不存在");
+        }
+        Map<String, ExamSubjectRule> rules = new HashMap<>();
+        for (ExamSubjectRule rule : examMapper.findSubjectRulesByExamId(examId)) {
+            rules.put(rule.getSubjectName(), rule);
+        }
+        if (rules.isEmpty() && exam.getSubjects() != null) {
+            // 旧数据可能没有 exam_subject 记录，按 exam.subjects 和默认满分 100 处理
+            for (String subject : exam.getSubjects().split("[,，]")) {
+                if (!subject.trim().isEmpty()) {
+                    ExamSubjectRule rule = new ExamSubjectRule();
+                    rule.setSubjectName(subject.trim());
+                    rule.setFullScore(new BigDecimal("100"));
+                    rules.put(rule.getSubjectName(), rule);
+                }
+            }
+        }
+
+        ScoreImportListener listener = new ScoreImportListener(examId, rules, studentMapper, scoreMapper, examMapper);
+        try {
+            ExcelReaderBuilder reader = EasyExcel.read(inputStream, listener).headRowNumber(1);
+            if (csv) {
+                reader.excelType(ExcelTypeEnum.CSV);
+            }
+            reader.sheet().doRead();
+        } finally {
+            if (listener.getWrittenScores() > 0) {
+                onScoresChanged(examId);
+            }
+        }
+        if (listener.getHeadError() != null) {
+            throw new CustomException(HttpStatus.BAD_REQUEST.value(), listener.getHeadError());
+        }
+        if (listener.isExamPurging()) {
+            throw new CustomException(HttpStatus.CONFLICT.value(),
+                    "考试在导入过程中被删除，已写入 " + listener.getWrittenScores() + " 个成绩，将随考试一并删除");
+        }
+        return listener.getResult();
+    }
+
+    // 删除中（status = 3）的考试，成绩正由后台任务清理，不再接受写入
+    private void requireWritableExam(Long examId) {
+        Integer status = examId != null ? examMapper.findStatusById(examId) : null;
+        if (status == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND.value(), "考试不存在");
+        }
+        if (status == 3) {
+            throw new CustomException(HttpStatus.CONFLICT.value(), "考试正在删除，不能录入或修改成绩");
+        }
+    }
+
+    // 某场考试的成绩发生变化后，使依赖它的内存数据失效
+    private void onScoresChanged(Long examId) {
+        examRankingEngine.invalidate(examId);
+        scoreStatsService.invalidate(examId);
+    }
+
+    // 单条成绩变化：排名表失效重建，分布统计只增量修改受影响的班级×科目
+    // 班级由调用方传入（修改/删除时随原成绩一起查出），这里不再查询学生
+    private void onScoreWritten(long stamp, Score before, Long beforeClassId, Score after, Long afterClassId) {
+        if (before != null) {
+            examRankingEngine.invalidate(before.getExamId());
+            scoreStatsService.scoreRemoved(stamp, before.getExamId(), beforeClassId,
+                    before.getSubject(), before.getScore());
+        }
+        if (after != null) {
+            examRankingEngine.invalidate(after.getExamId());
+            scoreStatsService.scoreAdded(stamp, after.getExamId(), afterClassId,
+                    after.getSubject(), after.getScore());
+        }
+    }
+
+    private Long classIdOf(Long studentId) {
+        Student student = studentId != null ? studentMapper.findById(studentId) : null;
+        return student != null ? student.getClassId() : null;
     }
 
     @Override
@@ -83,165 +275,104 @@ public class ScoreServiceImpl implements ScoreService {
 
     @Override
     public List<ExamTaken> getStudentUpcomingExams(Long studentId) {
-        return scoreMapper.findStudentUpcomingExams(studentId);
+        // 由内存索引提供，不查询数据库
+        return upcomingExamIndex.upcomingForStudent(studentId);
     }
 
     @Override
-    public com.ikunmanager.dto.StudentScoreReport getStudentScoreReport(Long studentId, Long examId) {
-        // 构造报告对象
-        com.ikunmanager.dto.StudentScoreReport report = new com.ikunmanager.dto.StudentScoreReport();
-
-        // 1. 基础信息
-        // 获取学生信息、班级信息
-        com.ikunmanager.model.Student student = studentMapper.findById(studentId);
+    public StudentScoreReport getStudentScoreReport(Long studentId, Long examId) {
+        // 1. 基础信息（findById 已联表带出班级名称）
+        Student student = studentMapper.findById(studentId);
         if (student == null) {
             return null;
         }
-        com.ikunmanager.model.IkunClass ikunClass = null;
-        if (student.getClassId() != null) {
-            ikunClass = classMapper.findById(student.getClassId());
+
+        // 2. 考试信息
+        Exam exam = examMapper.findExamById(examId);
+        if (exam == null) {
+            return null;
         }
 
-        com.ikunmanager.dto.StudentScoreReport.StudentInfoSection studentInfoSection = new com.ikunmanager.dto.StudentScoreReport.StudentInfoSection();
+        // 3. 排名、平均分全部来自按考试缓存的排名表，不再逐次拉取全班/全年级成绩
+        ExamRankingTable table = examRankingEngine.getTable(examId);
+        return buildStudentScoreReport(student, exam, table);
+    }
+
+    @Override
+    public void forEachStudentScoreReport(Long examId, Long classId, Consumer<StudentScoreReport> consumer) {
+        Exam exam = examMapper.findExamById(examId);
+        if (exam == null) {
+            throw new CustomException(HttpStatus.NOT_FOUND, "考试不存在");
+        }
+        // 排名表对整场考试只构建一次，每个学生的报告只需 O(科目数 × log n)
+        ExamRankingTable table = examRankingEngine.getTable(examId);
+        for (Student student : studentMapper.findByExamParticipation(examId, classId)) {
+            consumer.accept(buildStudentScoreReport(student, exam, table));
+        }
+    }
+
+    private StudentScoreReport buildStudentScoreReport(Student student, Exam exam, ExamRankingTable table) {
+        StudentScoreReport report = new StudentScoreReport();
+
+        StudentScoreReport.StudentInfoSection studentInfoSection = new StudentScoreReport.StudentInfoSection();
         studentInfoSection.setId(student.getId());
         studentInfoSection.setName(student.getName());
         studentInfoSection.setStudentIdStr(student.getStudentId());
         report.setStudentInfo(studentInfoSection);
 
-        com.ikunmanager.dto.StudentScoreReport.ClassInfoSection classInfoSection = new com.ikunmanager.dto.StudentScoreReport.ClassInfoSection();
-        if (ikunClass != null) {
-            classInfoSection.setId(ikunClass.getId());
-            classInfoSection.setName(ikunClass.getClassName());
+        StudentScoreReport.ClassInfoSection classInfoSection = new StudentScoreReport.ClassInfoSection();
+        if (student.getClassId() != null) {
+            classInfoSection.setId(student.getClassId());
+            classInfoSection.setName(student.getClassName());
         }
         report.setClassInfo(classInfoSection);
 
-        // 2. 考试信息
-        com.ikunmanager.model.Exam exam = examMapper.findExamById(examId);
-        if (exam == null) {
-            return null;
-        }
-        com.ikunmanager.dto.StudentScoreReport.ExamInfoSection examInfoSection = new com.ikunmanager.dto.StudentScoreReport.ExamInfoSection();
+        StudentScoreReport.ExamInfoSection examInfoSection = new StudentScoreReport.ExamInfoSection();
         examInfoSection.setId(exam.getId());
         examInfoSection.setName(exam.getExamName());
         examInfoSection.setDate(exam.getExamDate() != null ? exam.getExamDate().toLocalDate().toString() : null);
         if (exam.getSubjects() != null) {
-            examInfoSection.setSubjects(java.util.Arrays.asList(exam.getSubjects().split("[,，]")));
+            examInfoSection.setSubjects(Arrays.asList(exam.getSubjects().split("[,，]")));
         }
         report.setExamInfo(examInfoSection);
 
-        // 3. 获取学生该次考试所有科目成绩
-        java.util.List<com.ikunmanager.model.Score> studentScores = scoreMapper.findByStudentIdAndExamId(studentId, examId);
-
-        // 4. 获取同班同考所有成绩，用于计算平均
-        java.util.List<com.ikunmanager.dto.ScoreDetailDTO> classScores = null;
-        if (ikunClass != null) {
-            classScores = scoreMapper.findScoresByExamAndClass(examId, ikunClass.getId());
-        }
-
-        java.util.Map<String, java.util.List<com.ikunmanager.dto.ScoreDetailDTO>> classScoresBySubject = new java.util.HashMap<>();
-        if (classScores != null) {
-            for (com.ikunmanager.dto.ScoreDetailDTO dto : classScores) {
-                classScoresBySubject.computeIfAbsent(dto.getSubject(), k -> new java.util.ArrayList<>()).add(dto);
-            }
-        }
+        int studentIdx = table.indexOf(student.getId());
 
         // Subject details
-        java.util.List<com.ikunmanager.dto.StudentScoreReport.SubjectScoreDetail> subjectDetailList = new java.util.ArrayList<>();
-        double studentTotal = 0;
-
-        for (com.ikunmanager.model.Score score : studentScores) {
-            com.ikunmanager.dto.StudentScoreReport.SubjectScoreDetail detail = new com.ikunmanager.dto.StudentScoreReport.SubjectScoreDetail();
-            detail.setSubject(score.getSubject());
-            if (score.getScore() != null) {
-                detail.setStudentScore(score.getScore().doubleValue());
-                studentTotal += score.getScore().doubleValue();
-            }
-
-            // compute class average
-            java.util.List<com.ikunmanager.dto.ScoreDetailDTO> sameSubjectScores = classScoresBySubject.get(score.getSubject());
-            if (sameSubjectScores != null && !sameSubjectScores.isEmpty()) {
-                double avg = sameSubjectScores.stream()
-                        .mapToDouble(s -> s.getScore() != null ? s.getScore().doubleValue() : 0.0)
-                        .average().orElse(Double.NaN);
-                if (!Double.isNaN(avg)) {
-                    detail.setClassAverageScore(Math.round(avg * 100.0) / 100.0);
-                }
-            }
-
-            // 计算班级排名
-            if (sameSubjectScores != null && !sameSubjectScores.isEmpty()) {
-                java.util.List<com.ikunmanager.dto.ScoreDetailDTO> sorted = new java.util.ArrayList<>(sameSubjectScores);
-                sorted.sort((a,b)->{
-                    double as = a.getScore() != null ? a.getScore().doubleValue() : 0.0;
-                    double bs = b.getScore() != null ? b.getScore().doubleValue() : 0.0;
-                    return Double.compare(bs, as); // 降序
-                });
-                int rank = 1;
-                for (com.ikunmanager.dto.ScoreDetailDTO dtoRank : sorted) {
-                    if (dtoRank.getStudentId().equals(studentId)) {
-                        break;
-                    }
-                    rank++;
+        List<StudentScoreReport.SubjectScoreDetail> subjectDetailList = new ArrayList<>();
+        if (studentIdx >= 0) {
+            int classIdx = table.classOf(studentIdx);
+            for (int sub = 0; sub < table.subjectCount(); sub++) {
+                if (!table.hasScore(studentIdx, sub)) {
+                    continue;
                 }
-                detail.setClassRank(rank);
+                StudentScoreReport.SubjectScoreDetail detail = new StudentScoreReport.SubjectScoreDetail();
+                detail.setSubject(table.subjectAt(sub));
+                detail.setStudentScore(table.score(studentIdx, sub));
+                detail.setClassAverageScore(CacheUtils.round2(table.classAverage(classIdx, sub)));
+                detail.setClassRank(table.classRank(studentIdx, sub));
+                subjectDetailList.add(detail);
             }
-
-            subjectDetailList.add(detail);
         }
-
         report.setSubjectDetails(subjectDetailList);
 
         // Total scores
-        com.ikunmanager.dto.StudentScoreReport.TotalScoreDetails total = new com.ikunmanager.dto.StudentScoreReport.TotalScoreDetails();
-        total.setStudentTotalScore(studentTotal);
-
-        // compute class average total score & 总分班级排名
-        if (classScores != null && !classScores.isEmpty()) {
-            java.util.Map<Long, java.lang.Double> totalByStudent = new java.util.HashMap<>();
-            for (com.ikunmanager.dto.ScoreDetailDTO dto : classScores) {
-                totalByStudent.merge(dto.getStudentId(), dto.getScore() != null ? dto.getScore().doubleValue() : 0.0, Double::sum);
-            }
-
-            double classAvgTotal = totalByStudent.values().stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
-            if (!Double.isNaN(classAvgTotal)) {
-                total.setClassAverageTotalScore(Math.round(classAvgTotal * 100.0) / 100.0);
-            }
-
-            java.util.List<java.util.Map.Entry<Long, Double>> totalList = new java.util.ArrayList<>(totalByStudent.entrySet());
-            totalList.sort((e1,e2)->Double.compare(e2.getValue(), e1.getValue()));
-            int rankTotal = 1;
-            for (java.util.Map.Entry<Long, Double> entry : totalList) {
-                if (entry.getKey().equals(studentId)) {
-                    break;
-                }
-                rankTotal++;
-            }
-            total.setClassTotalScoreRank(rankTotal);
-        }
-
-        // 计算年级总分排名（同一次考试所有学生，不限班级）
-        java.util.List<com.ikunmanager.dto.ScoreDetailDTO> gradeScores = scoreMapper.findScoresByExamAndClass(examId, null);
-        if (gradeScores != null && !gradeScores.isEmpty()) {
-            java.util.Map<Long, java.lang.Double> gradeTotalByStudent = new java.util.HashMap<>();
-            for (com.ikunmanager.dto.ScoreDetailDTO dto : gradeScores) {
-                gradeTotalByStudent.merge(dto.getStudentId(), dto.getScore() != null ? dto.getScore().doubleValue() : 0.0, Double::sum);
-            }
-            java.util.List<java.util.Map.Entry<Long, Double>> gradeList = new java.util.ArrayList<>(gradeTotalByStudent.entrySet());
-            gradeList.sort((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()));
-            int gradeRank = 1;
-            for (java.util.Map.Entry<Long, Double> entry : gradeList) {
-                if (entry.getKey().equals(studentId)) {
-                    break;
-                }
-                gradeRank++;
-            }
-            total.setGradeTotalScoreRank(gradeRank);
+        StudentScoreReport.TotalScoreDetails total = new StudentScoreReport.TotalScoreDetails();
+        if (studentIdx >= 0) {
+            total.setStudentTotalScore(table.total(studentIdx));
+            total.setClassAverageTotalScore(CacheUtils.round2(table.classAverageTotal(table.classOf(studentIdx))));
+            total.setClassTotalScoreRank(table.classTotalRank(studentIdx));
+            total.setGradeTotalScoreRank(table.gradeTotalRank(studentIdx));
         } else {
-            total.setGradeTotalScoreRank(null);
+            // 该生本次考试没有成绩：总分记 0，只给出班级平均分，不参与排名
+            total.setStudentTotalScore(0.0);
+            int classIdx = student.getClassId() != null ? table.classIndexOf(student.getClassId()) : -1;
+            if (classIdx >= 0) {
+                total.setClassAverageTotalScore(CacheUtils.round2(table.classAverageTotal(classIdx)));
+            }
         }
-
         report.setTotalScoreDetails(total);
 
         return report;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package com.ikunmanager.service.impl;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.read.builder.ExcelReaderBuilder;
+import com.alibaba.excel.support.ExcelTypeEnum;
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.model.Student;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 学生导入的逐行监听器，列顺序：学号 / 姓名 / 性别 / 班级 / 电话 / 邮箱（第一行为表头）。
+ * <p>
+ * 行在内存中只攒够一批（{@link #BATCH_SIZE} 行）：批内学号一次性查询已存在的记录，
+ * 默认学号已存在的行逐行报错，其余行以一条多行 INSERT 写入；updateExisting 为 true 时
+ * 已存在的学生按表格更新姓名 / 性别 / 班级 / 电话 / 邮箱（INSERT ... ON DUPLICATE KEY UPDATE），
+ * 用于导出、修改后再导入。某行出错不影响其它行，内存占用与表格总行数无关
+ * （只额外保存已读到的学号用于检查表内重复，以及被调班、关联了账号的已有学生ID）。
+ */
+public class StudentImportListener extends AnalysisEventListener<Map<Integer, String>> {
+
+    static final int BATCH_SIZE = 500;
+
+    /** 表头，导出使用同样的列，导出的文件修改后可按更新模式导入 */
+    public static final List<String> COLUMNS = List.of("学号", "姓名", "性别", "班级", "电话", "邮箱");
+
+    private final Map<String, Long> classIds;
+    private final Pattern studentNoPattern;
+    private final StudentMapper studentMapper;
+    private final boolean updateExisting;
+    private final ImportResult result = new ImportResult();
+
+    private final Set<String> seenStudentNos = new HashSet<>();
+    private final List<PendingRow> pending = new ArrayList<>(BATCH_SIZE);
+    /** 更新模式下班级发生变化的已有学生：学生ID -> 新班级ID */
+    private final Map<Long, Long> movedStudents = new HashMap<>();
+    /** 更新模式下被修改、且关联了用户账号的学生的用户ID */
+    private final Set<Long> updatedUserIds = new HashSet<>();
+
+    public StudentImportListener(Map<String, Long> classIds, Pattern studentNoPattern, StudentMapper studentMapper,
+                                 boolean updateExisting) {
+        this.classIds = classIds;
+        this.studentNoPattern = studentNoPattern;
+        this.studentMapper = studentMapper;
+        this.updateExisting = updateExisting;
+    }
+
+    /**
+     * 读取整个表格（第一个工作表），CSV 按 UTF-8 解析，与导出的文件一致
+     */
+    public void read(InputStream inputStream, boolean csv) {
+        ExcelReaderBuilder reader = EasyExcel.read(inputStream, this).headRowNumber(1);
+        if (csv) {
+            reader.excelType(ExcelTypeEnum.CSV).charset(StandardCharsets.UTF_8);
+        }
+        reader.sheet().doRead();
+    }
+
+    @Override
+    public void invoke(Map<Integer, String> data, AnalysisContext context) {
+        int rowNo = context.readRowHolder().getRowIndex() + 1;
+        result.setTotalRows(result.getTotalRows() + 1);
+
+        String error = validate(data);
+        if (error != null) {
+            result.addError(rowNo, error);
+            return;
+        }
+        Student student = new Student();
+        student.setStudentId(normalize(data.get(0)));
+        student.setName(normalize(data.get(1)));
+        student.setGender(normalize(data.get(2)));
+        student.setClassId(classIds.get(normalize(data.get(3))));
+        student.setPhone(normalize(data.get(4)));
+        student.setEmail(normalize(data.get(5)));
+        pending.add(new PendingRow(rowNo, student));
+        if (pending.size() >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+    }
+
+    public ImportResult getResult() {
+        return result;
+    }
+
+    public Map<Long, Long> getMovedStudents() {
+        return movedStudents;
+    }
+
+    public Set<Long> getUpdatedUserIds() {
+        return updatedUserIds;
+    }
+
+    private String validate(Map<Integer, String> data) {
+        String studentNo = normalize(data.get(0));
+        if (studentNo == null) {
+            return "学号为空";
+        }
+        if (studentNoPattern != null && !studentNoPattern.matcher(studentNo).matches()) {
+            return "学号“" + studentNo + "”格式不正确";
+        }
+        if (!seenStudentNos.add(studentNo)) {
+            return "学号“" + studentNo + "”在表格中重复";
+        }
+        if (normalize(data.get(1)) == null) {
+            return "姓名为空";
+        }
+        String className = normalize(data.get(3));
+        if (className == null) {
+            return "班级为空";
+        }
+        if (!classIds.containsKey(className)) {
+            return "班级“" + className + "”不存在";
+        }
+        return null;
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<String> studentNos = new HashSet<>();
+        for (PendingRow row : pending) {
+            studentNos.add(row.student.getStudentId());
+        }
+        Map<String, Student> existing = new HashMap<>();
+        for (Student student : studentMapper.findByStudentNos(studentNos)) {
+            existing.put(student.getStudentId(), student);
+        }
+
+        List<PendingRow> batch = new ArrayList<>(pending.size());
+        for (PendingRow row : pending) {
+            Student current = existing.get(row.student.getStudentId());
+            if (current == null) {
+                batch.add(row);
+            } else if (!updateExisting) {
+                result.addError(row.rowNo, "学号“" + row.student.getStudentId() + "”已存在");
+            } else {
+                batch.add(row);
+                if (!Objects.equals(current.getClassId(), row.student.getClassId())) {
+                    movedStudents.put(current.getId(), row.student.getClassId());
+                }
+                if (current.getUserId() != null) {
+                    updatedUserIds.add(current.getUserId());
+                }
+            }
+        }
+        pending.clear();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Student> students = new ArrayList<>(batch.size());
+        for (PendingRow row : batch) {
+            students.add(row.student);
+        }
+        if (updateExisting) {
+            // 预查之后被并发插入的相同学号也只是按表格更新，不会冲突
+            studentMapper.batchUpsert(students);
+            result.setSuccessRows(result.getSuccessRows() + students.size());
+            return;
+        }
+        try {
+            studentMapper.batchInsert(students);
+            result.setSuccessRows(result.getSuccessRows() + students.size());
+        } catch (DuplicateKeyException e) {
+            // 预查之后又被并发写入了相同学号：本批逐行插入，只让冲突的行失败
+            for (PendingRow row : batch) {
+                try {
+                    studentMapper.insert(row.student);
+                    result.setSuccessRows(result.getSuccessRows() + 1);
+                } catch (DuplicateKeyException duplicate) {
+                    result.addError(row.rowNo, "学号“" + row.student.getStudentId() + "”已存在");
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.replace("\uFEFF", "").trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static final class PendingRow {
+        private final int rowNo;
+        private final Student student;
+
+        PendingRow(int rowNo, Student student) {
+            this.rowNo = rowNo;
+            this.student = student;
+        }
+    }
+}
@@ -8,11 +8,10 @@ import com.ikunmanager.dto.SubmissionResponse;
 import com.ikunmanager.entity.Assignment;
 import com.ikunmanager.entity.Submission;
 import com.ikunmanager.model.Student;
-import com.ikunmanager.model.User;
 import com.ikunmanager.mapper.AssignmentMapper;
 import com.ikunmanager.mapper.SubmissionMapper;
 import com.ikunmanager.mapper.StudentMapper;
-import com.ikunmanager.mapper.UserMapper;
+import com.ikunmanager.security.AuthenticatedUser;
 import com.ikunmanager.service.SubmissionService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,32 +35,28 @@ public class SubmissionServiceImpl implements SubmissionService {
     @Autowired
     private StudentMapper studentMapper;
 
-    @Autowired
-    private UserMapper userMapper;
-
     @Override
     @Transactional
-    public ApiResponse<Submission> submitAssignment(SubmissionRequest request, Long studentUserId) {
+    public ApiResponse<Submission> submitAssignment(SubmissionRequest request, AuthenticatedUser studentUser) {
         // 1. 验证作业是否存在
         Assignment assignment = assignmentMapper.selectById(request.getAssignmentId());
         if (assignment == null) {
             throw new CustomException(HttpStatus.NOT_FOUND, "作业不存在");
         }
 
-        // 2. 验证学生用户是否存在且是学生角色
-        User studentUser = userMapper.findById(studentUserId);
-        if (studentUser == null || !"student".equals(studentUser.getRole())) {
+        // 2. 验证是学生角色（角色来自 token 中已签名的声明）
+        if (!studentUser.isStudent()) {
             throw new CustomException(HttpStatus.FORBIDDEN, "非学生用户或用户不存在");
         }
 
         // 3. 获取学生实体ID
-        Student student = studentMapper.selectByUserId(studentUserId);
-        if (student == null) {
+        Long studentId = studentUser.getStudentId();
+        if (studentId == null) {
             throw new CustomException(HttpStatus.NOT_FOUND, "未找到对应的学生信息");
         }
 
         // 4. 检查是否重复提交 (一个作业一个学生只能提交一次)
-        Submission existingSubmission = submissionMapper.selectByAssignmentIdAndStudentId(request.getAssignmentId(), student.getId());
+        Submission existingSubmission = submissionMapper.selectByAssignmentIdAndStudentId(request.getAssignmentId(), studentId);
         if (existingSubmission != null) {
             throw new CustomException(HttpStatus.CONFLICT, "你已提交过该作业，请勿重复提交");
         }
@@ -75,7 +70,7 @@ public class SubmissionServiceImpl implements SubmissionService {
         // 6. 构建并插入提交记录
         Submission submission = new Submission();
         BeanUtils.copyProperties(request, submission);
-        submission.setStudentId(student.getId()); // 使用学生实体ID
+        submission.setStudentId(studentId); // 使用学生实体ID
         submission.setStatus(status);
         submission.setSubmittedAt(LocalDateTime.now());
 
@@ -89,7 +84,7 @@ public class SubmissionServiceImpl implements SubmissionService {
 
     @Override
     @Transactional
-    public ApiResponse<Submission> updateSubmission(Long id, SubmissionRequest request, Long studentUserId) {
+    public ApiResponse<Submission> updateSubmission(Long id, SubmissionRequest request, AuthenticatedUser studentUser) {
         // 1. 验证提交记录是否存在
         Submission existingSubmission = submissionMapper.selectById(id);
         if (existingSubmission == null) {
@@ -97,8 +92,7 @@ public class SubmissionServiceImpl implements SubmissionService {
         }
 
         // 2. 验证当前用户是否有权限修改 (只能修改自己的提交)
-        Student student = studentMapper.selectByUserId(studentUserId);
-        if (student == null || !existingSubmission.getStudentId().equals(student.getId())) {
+        if (studentUser.getStudentId() == null || !existingSubmission.getStudentId().equals(studentUser.getStudentId())) {
             throw new CustomException(HttpStatus.FORBIDDEN, "无权限修改该提交");
         }
 
@@ -136,7 +130,7 @@ public class SubmissionServiceImpl implements SubmissionService {
 
     @Override
     @Transactional
-    public ApiResponse<Void> deleteSubmission(Long id, Long studentUserId) {
+    public ApiResponse<Void> deleteSubmission(Long id, AuthenticatedUser studentUser) {
         // 1. 验证提交记录是否存在
         Submission existingSubmission = submissionMapper.selectById(id);
         if (existingSubmission == null) {
@@ -144,8 +138,7 @@ public class SubmissionServiceImpl implements SubmissionService {
         }
 
         // 2. 验证当前用户是否有权限删除 (只能删除自己的提交)
-        Student student = studentMapper.selectByUserId(studentUserId);
-        if (student == null || !existingSubmission.getStudentId().equals(student.getId())) {
+        if (studentUser.getStudentId() == null || !existingSubmission.getStudentId().equals(studentUser.getStudentId())) {
             throw new CustomException(HttpStatus.FORBIDDEN, "无权限删除该提交");
         }
 
@@ -178,12 +171,11 @@ public class SubmissionServiceImpl implements SubmissionService {
     }
 
     @Override
-    public ApiResponse<SubmissionResponse> getSubmissionByAssignmentIdAndStudentId(Long assignmentId, Long studentUserId) {
-        Student student = studentMapper.selectByUserId(studentUserId);
-        if (student == null) {
+    public ApiResponse<SubmissionResponse> getSubmissionByAssignmentIdAndStudentId(Long assignmentId, AuthenticatedUser studentUser) {
+        if (studentUser.getStudentId() == null) {
             throw new CustomException(HttpStatus.NOT_FOUND, "学生信息不存在");
         }
-        Submission submission = submissionMapper.selectByAssignmentIdAndStudentId(assignmentId, student.getId());
+        Submission submission = submissionMapper.selectByAssignmentIdAndStudentId(assignmentId, studentUser.getStudentId());
         if (submission == null) {
              return ApiResponse.ok(null); // Return null if not submitted yet, not an error
         }
@@ -2,6 +2,8 @@ package com.ikunmanager.service.impl;
 
 import com.ikunmanager.mapper.UserMapper;
 import com.ikunmanager.model.User;
+import com.ikunmanager.security.PrincipalCache;
+import com.ikunmanager.security.TokenRevocationService;
 import com.ikunmanager.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,32 +12,38 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-
 @Service
 public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public UserServiceImpl(UserMapper userMapper, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserMapper userMapper, PasswordEncoder passwordEncoder, PrincipalCache principalCache,
+                           TokenRevocationService tokenRevocationService) {
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userMapper.findByUsername(username);
-        if (user == null) {
+        UserDetails userDetails = principalCache.findUserDetails(username);
+        if (userDetails == null) {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), new ArrayList<>());
+        return userDetails;
     }
 
+    /**
+     * 经 PrincipalCache 查询，返回的对象为共享实例，不要修改
+     */
     @Override
     public User findByUsername(String username) {
-        return userMapper.findByUsername(username);
+        return principalCache.findUser(username);
     }
 
     @Override
@@ -52,7 +60,15 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         if (user.getPassword() != null && !user.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
+        User existing = userMapper.findById(user.getId());
         userMapper.update(user);
+        // 资料或密码变更后，缓存中的旧用户信息（含密码哈希）必须失效
+        principalCache.invalidateUser(user.getId());
+        // 角色、用户名写在 token 声明中，变更后旧 token 作废，需重新登录
+        if (existing != null && ((user.getRole() != null && !user.getRole().equals(existing.getRole()))
+                || (user.getUsername() != null && !user.getUsername().equals(existing.getUsername())))) {
+            tokenRevocationService.revokeUserTokens(user.getId());
+        }
         // 重新查询用户以确保返回最新的完整信息，包括可能在数据库中更新但不在请求体中的字段（如头像）
         return userMapper.findById(user.getId());
     }
@@ -0,0 +1,139 @@
+package com.ikunmanager.common;
+
+import com.ikunmanager.dto.KeysetPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListQueryTest {
+
+    static final class Row {
+        final long id;
+        final String name;
+        final Long rank;
+
+        Row(long id, String name, Long rank) {
+            this.id = id;
+            this.name = name;
+            this.rank = rank;
+        }
+    }
+
+    private static final SortableColumns<Row> COLUMNS = SortableColumns.<Row>of("id", r -> r.id)
+            .column("name", "name", String.class, r -> r.name)
+            .nullableColumn("rank", "rank", Long.class, r -> r.rank)
+            .defaultSort("id", true);
+
+    // MySQL 排序中 NULL 小于任何值：升序在最前，倒序在最后
+    private static final Comparator<Row> BY_RANK = Comparator.<Row, Long>comparing(r -> r.rank,
+            Comparator.nullsFirst(Comparator.naturalOrder())).thenComparingLong(r -> r.id);
+
+    // 按 ListQuery 绑定的排序列 / 键集条件 / LIMIT 在内存中模拟 Mapper XML
+    private static List<Row> select(List<Row> table, ListQuery q) {
+        Comparator<Row> order = "name".equals(q.getSortColumn())
+                ? Comparator.<Row, String>comparing(r -> r.name).thenComparingLong(r -> r.id)
+                : "rank".equals(q.getSortColumn()) ? BY_RANK : Comparator.comparingLong(r -> r.id);
+        if ("DESC".equals(q.getDirection())) {
+            order = order.reversed();
+        }
+        Row cursor = null;
+        if (q.getAfterId() != null) {
+            cursor = "rank".equals(q.getSortColumn())
+                    ? new Row(q.getAfterId(), null, (Long) q.getAfterValue())
+                    : new Row(q.getAfterId(), q.isSortById() ? null : (String) q.getAfterValue(), null);
+        }
+        Row finalCursor = cursor;
+        Comparator<Row> finalOrder = order;
+        return table.stream()
+                .filter(r -> finalCursor == null || finalOrder.compare(r, finalCursor) > 0)
+                .sorted(order)
+                .limit(q.getLimit() != null ? q.getLimit() : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Row> table() {
+        List<Row> rows = new ArrayList<>();
+        String[] names = {"王", "李", "张", "刘", "陈"};
+        for (long id = 1; id <= 23; id++) {
+            // 每三行一个 NULL
+            rows.add(new Row(id, names[(int) (id % names.length)], id % 3 == 0 ? null : id % 4));
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> walk(List<Row> table, String sort, String order, int pageSize) {
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        do {
+            ListQuery query = new ListQuery(ListQuery.Mode.KEYSET, 1, pageSize, sort, order, after);
+            KeysetPage<Row> page = (KeysetPage<Row>) query.fetch(COLUMNS, () -> table, q -> select(table, q));
+            assertTrue(page.getList().size() <= pageSize);
+            page.getList().forEach(r -> seen.add(r.id));
+            after = page.getNextCursor();
+            assertEquals(page.isHasMore(), after != null);
+        } while (after != null);
+        return seen;
+    }
+
+    @Test
+    public void keyset_shouldVisitEveryRowOnceInOrder() {
+        List<Row> table = table();
+        List<Long> byIdDesc = walk(table, null, null, 5);
+        assertEquals(23, byIdDesc.size());
+        assertEquals(23L, byIdDesc.get(0));
+        assertEquals(1L, byIdDesc.get(22));
+
+        // 非唯一列：主键作为第二排序键，翻页时不重不漏
+        List<Long> byName = walk(table, "name", "asc", 4);
+        List<Long> expected = table.stream()
+                .sorted(Comparator.<Row, String>comparing(r -> r.name).thenComparingLong(r -> r.id))
+                .map(r -> r.id).collect(Collectors.toList());
+        assertEquals(expected, byName);
+    }
+
+    @Test
+    public void keyset_shouldPageAcrossNullValuesOfNullableColumn() {
+        List<Row> table = table();
+        // 页大小 2，游标会停在 NULL 行和非 NULL 行上
+        List<Long> desc = walk(table, "rank", "desc", 2);
+        assertEquals(table.stream().sorted(BY_RANK.reversed()).map(r -> r.id).collect(Collectors.toList()), desc);
+        List<Long> asc = walk(table, "rank", "asc", 2);
+        assertEquals(table.stream().sorted(BY_RANK).map(r -> r.id).collect(Collectors.toList()), asc);
+    }
+
+    @Test
+    public void all_shouldUseLegacyQuery() {
+        List<Row> table = table();
+        ListQuery query = new ListQuery(ListQuery.Mode.ALL, 1, 10, null, null, null);
+        assertSame(table, query.fetch(COLUMNS, () -> table, q -> {
+            throw new AssertionError("all 模式不应调用分页查询");
+        }));
+        assertNull(query.getSortColumn());
+    }
+
+    @Test
+    public void invalidParameters_shouldBeRejectedWith400() {
+        List<Row> table = table();
+        CustomException sort = assertThrows(CustomException.class, () ->
+                new ListQuery(ListQuery.Mode.PAGE, 1, 10, "password", null, null)
+                        .fetch(COLUMNS, () -> table, q -> select(table, q)));
+        assertEquals(400, sort.getCode());
+        assertEquals(400, assertThrows(CustomException.class, () ->
+                new ListQuery(ListQuery.Mode.PAGE, 1, 501, null, null, null)).getCode());
+        assertEquals(400, assertThrows(CustomException.class, () ->
+                new ListQuery(ListQuery.Mode.KEYSET, 1, 10, null, "up", null)).getCode());
+        assertEquals(400, assertThrows(CustomException.class, () ->
+                new ListQuery(ListQuery.Mode.KEYSET, 1, 10, null, null, "not-a-cursor!")
+                        .fetch(COLUMNS, () -> table, q -> select(table, q))).getCode());
+    }
+}
@@ -0,0 +1,49 @@
+package com.ikunmanager.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void mightContain_shouldNeverMissAddedValues() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        String[] ids = new String[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            filter.add(ids[i]);
+        }
+        for (String id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+    }
+
+    @Test
+    public void mightContain_shouldStayNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // 预期约 0.1%，留出余量避免偶发失败
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.003, "误判率过高: " + rate);
+    }
+
+    @Test
+    public void mightContain_shouldWorkForLegacyHashIds() {
+        BloomFilter filter = new BloomFilter(100, 0.001);
+        String id = "sha256:" + VerifiedTokenCache.keyOf("header.payload.signature");
+        filter.add(id);
+        assertTrue(filter.mightContain(id));
+    }
+}
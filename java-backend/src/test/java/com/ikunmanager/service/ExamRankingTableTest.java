@@ -0,0 +1,88 @@
+package com.ikunmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExamRankingTableTest {
+
+    private ExamRankingTable sampleTable() {
+        // 班级 10: 学生 1、2、3；班级 20: 学生 4、5
+        return new ExamRankingTable.Builder()
+                .add(1L, 10L, "语文", 905)
+                .add(1L, 10L, "数学", 800)
+                .add(2L, 10L, "语文", 905)
+                .add(2L, 10L, "数学", 950)
+                .add(3L, 10L, "语文", 700)
+                .add(4L, 20L, "语文", 990)
+                .add(4L, 20L, "数学", 600)
+                .add(5L, 20L, "数学", 1000)
+                .build();
+    }
+
+    private static int subjectIndex(ExamRankingTable table, String subject) {
+        for (int sub = 0; sub < table.subjectCount(); sub++) {
+            if (table.subjectAt(sub).equals(subject)) {
+                return sub;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void subjectRanks_shouldUseCompetitionRankingWithinClass() {
+        ExamRankingTable table = sampleTable();
+        int chinese = subjectIndex(table, "语文");
+
+        // 学生 1 和 2 同为 90.5 分，并列第一；学生 3 第三
+        assertEquals(1, table.classRank(table.indexOf(1L), chinese));
+        assertEquals(1, table.classRank(table.indexOf(2L), chinese));
+        assertEquals(3, table.classRank(table.indexOf(3L), chinese));
+        // 班级 20 里学生 4 的 99 分排第一
+        assertEquals(1, table.classRank(table.indexOf(4L), chinese));
+    }
+
+    @Test
+    public void missingSubject_shouldNotBeRanked() {
+        ExamRankingTable table = sampleTable();
+        int student3 = table.indexOf(3L);
+        int math = subjectIndex(table, "数学");
+
+        assertFalse(table.hasScore(student3, math));
+        assertEquals(-1, table.classRank(student3, math));
+        assertTrue(table.hasScore(table.indexOf(5L), math));
+    }
+
+    @Test
+    public void totals_shouldBeExactAndRankedPerClassAndGrade() {
+        ExamRankingTable table = sampleTable();
+        int student2 = table.indexOf(2L);
+
+        assertEquals(185.5, table.total(student2), 1e-9);
+        assertEquals(1, table.classTotalRank(student2));
+        // 年级总分: 185.5(2), 170.5(1), 159(4), 100(5), 70(3)
+        assertEquals(1, table.gradeTotalRank(student2));
+        assertEquals(3, table.gradeTotalRank(table.indexOf(4L)));
+        assertEquals(5, table.gradeTotalRank(table.indexOf(3L)));
+    }
+
+    @Test
+    public void averages_shouldBeComputedPerClass() {
+        ExamRankingTable table = sampleTable();
+        int class10 = table.classIndexOf(10L);
+
+        assertEquals((90.5 + 90.5 + 70.0) / 3, table.classAverage(class10, subjectIndex(table, "语文")), 1e-9);
+        assertEquals((170.5 + 185.5 + 70.0) / 3, table.classAverageTotal(class10), 1e-9);
+        assertEquals(-1, table.classIndexOf(99L));
+    }
+
+    @Test
+    public void toTenths_shouldConvertOneDecimalScores() {
+        assertEquals(875, ExamRankingTable.toTenths(new BigDecimal("87.5")));
+        assertEquals(1000, ExamRankingTable.toTenths(new BigDecimal("100")));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.dto.ExamConflict;
+import com.ikunmanager.dto.ExamScheduleRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExamScheduleIndexTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    private static void put(ExamScheduleIndex index, long examId, LocalDateTime start, int minutes, Long... classIds) {
+        index.put(examId, new ExamScheduleIndex.Slot(examId, "考试" + examId, start, minutes), Arrays.asList(classIds));
+    }
+
+    @Test
+    public void findConflicts_shouldDetectOverlapWithinSameClassOnly() {
+        ExamScheduleIndex index = new ExamScheduleIndex();
+        // 班级 10：9:00-11:00；班级 20：10:00-10:30
+        put(index, 1L, NINE, 120, 10L);
+        put(index, 2L, NINE.plusHours(1), 30, 20L);
+
+        List<ExamConflict> conflicts = index.findConflicts(null, "新考试", NINE.plusMinutes(90), 60, Arrays.asList(10L, 20L));
+        assertEquals(1, conflicts.size());
+        assertEquals(10L, conflicts.get(0).getClassId());
+        assertEquals(1L, conflicts.get(0).getOtherExamId());
+
+        // 首尾相接不算冲突
+        assertTrue(index.findConflicts(null, "新考试", NINE.plusHours(2), 60, Collections.singletonList(10L)).isEmpty());
+    }
+
+    @Test
+    public void findConflicts_shouldIgnoreTheExamBeingUpdated() {
+        ExamScheduleIndex index = new ExamScheduleIndex();
+        put(index, 1L, NINE, 120, 10L);
+
+        assertTrue(index.findConflicts(1L, "考试1", NINE.plusMinutes(30), 120, Collections.singletonList(10L)).isEmpty());
+    }
+
+    @Test
+    public void conflictsAmong_shouldApplySameRulesToDatabaseRows() {
+        // 数据库按时间段粗筛的结果：首尾相接的一场、自身一场、真正重叠的一场
+        List<ExamScheduleRow> rows = Arrays.asList(
+                row(1L, NINE.minusHours(1), 60, 10L),
+                row(2L, NINE, 30, 10L),
+                row(3L, NINE.plusMinutes(30), 60, 20L));
+
+        List<ExamConflict> conflicts = ExamScheduleIndex.conflictsAmong(2L, "考试2", NINE, 60, rows);
+        assertEquals(1, conflicts.size());
+        assertEquals(20L, conflicts.get(0).getClassId());
+        assertEquals(3L, conflicts.get(0).getOtherExamId());
+    }
+
+    private static ExamScheduleRow row(long examId, LocalDateTime start, int minutes, long classId) {
+        ExamScheduleRow row = new ExamScheduleRow();
+        row.setExamId(examId);
+        row.setExamName("考试" + examId);
+        row.setExamDate(start);
+        row.setDuration(minutes);
+        row.setClassId(classId);
+        return row;
+    }
+
+    @Test
+    public void put_shouldReplaceAndRemovePreviousSlot() {
+        ExamScheduleIndex index = new ExamScheduleIndex();
+        put(index, 1L, NINE, 120, 10L);
+        // 改期到下午并换班级后，上午时间段在班级 10 中空出来
+        put(index, 1L, NINE.plusHours(5), 120, 20L);
+        assertTrue(index.findConflicts(null, "新考试", NINE, 60, Collections.singletonList(10L)).isEmpty());
+        assertEquals(1, index.findConflicts(null, "新考试", NINE.plusHours(5), 60, Collections.singletonList(20L)).size());
+
+        index.put(1L, null, null);
+        assertTrue(index.findConflicts(null, "新考试", NINE.plusHours(5), 60, Collections.singletonList(20L)).isEmpty());
+    }
+
+    @Test
+    public void findAllConflicts_shouldReportEachOverlappingPairOnce() {
+        ExamScheduleIndex index = new ExamScheduleIndex();
+        // 班级 10：1 与 2 重叠，2 与 3 重叠，1 与 3 不重叠；4 在另一天
+        put(index, 1L, NINE, 60, 10L);
+        put(index, 2L, NINE.plusMinutes(30), 60, 10L);
+        put(index, 3L, NINE.plusMinutes(70), 60, 10L);
+        put(index, 4L, NINE.plusDays(1), 60, 10L);
+        // 班级 20：两场同时开始的考试
+        put(index, 5L, NINE, 0, 20L);
+        put(index, 6L, NINE, 45, 20L);
+
+        List<ExamConflict> all = index.findAllConflicts(null, null);
+        assertEquals(3, all.size());
+
+        // 只看第二天：没有冲突
+        assertTrue(index.findAllConflicts(NINE.plusDays(1).minusHours(1), NINE.plusDays(2)).isEmpty());
+        // 从 10:00 起：只剩下跨过 10:00 的 2-3 冲突
+        List<ExamConflict> late = index.findAllConflicts(NINE.plusMinutes(60), null);
+        assertEquals(1, late.size());
+        assertEquals(2L, late.get(0).getExamId());
+        assertEquals(3L, late.get(0).getOtherExamId());
+    }
+}
@@ -0,0 +1,124 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.dto.SearchHit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchIndexTest {
+
+    private static SearchIndex.Item student(long id, String name, String studentNo) {
+        return new SearchIndex.Item(SearchIndex.STUDENT, id, name, studentNo);
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        List<Long> ids = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            ids.add(hit.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void pinyinInitials_shouldMapCommonCharacters() {
+        assertEquals("zs", SearchIndex.pinyinInitials("张三"));
+        assertEquals("lsw", SearchIndex.pinyinInitials("李四王"));
+        assertEquals("la", SearchIndex.pinyinInitials("李A"));
+        assertNull(SearchIndex.pinyinInitials("Tom"));
+    }
+
+    @Test
+    public void search_shouldMatchNameNumberAndInitials() {
+        SearchIndex index = new SearchIndex();
+        index.put(student(1L, "张三", "S2023001"));
+        index.put(student(2L, "张三丰", "S2023002"));
+        index.put(student(3L, "李四", "S2024003"));
+
+        assertEquals(List.of(1L, 2L), ids(index.search("张三", null, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("zs", null, 10)));
+        assertEquals(List.of(3L), ids(index.search("s2024", null, 10)));
+        // 子串：学号中间的数字
+        assertEquals(List.of(2L), ids(index.search("3002", null, 10)));
+        assertEquals(List.of(1L), ids(index.search("张", null, 1)));
+        assertTrue(index.search("王五", null, 10).isEmpty());
+    }
+
+    @Test
+    public void search_shouldRankPrefixBeforeSubstring() {
+        SearchIndex index = new SearchIndex();
+        index.put(student(1L, "王小明", "S0000001"));
+        index.put(student(2L, "小明", "S0000002"));
+
+        List<SearchHit> hits = index.search("小明", null, 10);
+        assertEquals(List.of(2L, 1L), ids(hits));
+    }
+
+    @Test
+    public void putAndRemove_shouldReplaceOldKeys() {
+        SearchIndex index = new SearchIndex();
+        index.put(student(1L, "张三", "S2023001"));
+        index.put(student(1L, "李四", "S2023001"));
+
+        assertTrue(index.search("张三", null, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("李四", null, 10)));
+
+        index.remove(SearchIndex.STUDENT, 1L);
+        assertTrue(index.search("S2023", null, 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void compaction_shouldKeepLiveRecordsSearchable() {
+        SearchIndex index = new SearchIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1000; id++) {
+                index.put(student(id, "学生" + id + "-" + round, String.format("S%07d", id)));
+            }
+        }
+        assertEquals(1000, index.size());
+        assertEquals(List.of(42L), ids(index.search("学生42-4", null, 10)));
+        assertTrue(index.search("学生42-3", null, 10).isEmpty());
+    }
+
+    /**
+     * 5 万名学生时的联想耗时；属于耗时测试，只在 mvn test -Pbenchmark 时运行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark_typeaheadLatency() {
+        String surnames = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗";
+        String given = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂";
+        Random random = new Random(7);
+        SearchIndex index = new SearchIndex();
+        List<SearchIndex.Item> items = new ArrayList<>();
+        for (long id = 1; id <= 50_000; id++) {
+            String name = "" + surnames.charAt(random.nextInt(surnames.length()))
+                    + given.charAt(random.nextInt(given.length())) + given.charAt(random.nextInt(given.length()));
+            items.add(student(id, name, String.format("S%d%04d", 2020 + id % 5, id % 10000)));
+        }
+        index.replaceAll(SearchIndex.STUDENT, items);
+
+        String[] queries = {"王", "张伟", "zw", "s2023", "S20230", "0042", "伟芳", "林秀霞"};
+        for (int i = 0; i < 2000; i++) {
+            index.search(queries[i % queries.length], null, 10); // 预热
+        }
+        long worst = 0;
+        for (String query : queries) {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 20; run++) {
+                long start = System.nanoTime();
+                index.search(query, null, 10);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            worst = Math.max(worst, best);
+        }
+        assertTrue(worst < 50_000_000L, "单次联想应远低于 50 ms");
+    }
+}
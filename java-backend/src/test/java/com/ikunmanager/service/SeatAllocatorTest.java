@@ -0,0 +1,133 @@
+package com.ikunmanager.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeatAllocatorTest {
+
+    // 每班 studentsPerClass 人，班级大小上下浮动 20%
+    private static int[] cohort(int students, int studentsPerClass, long seed) {
+        Random random = new Random(seed);
+        int[] classOf = new int[students];
+        int classNo = 0;
+        int left = studentsPerClass;
+        for (int i = 0; i < students; i++) {
+            if (left == 0) {
+                classNo++;
+                left = studentsPerClass * 4 / 5 + random.nextInt(studentsPerClass * 2 / 5 + 1);
+            }
+            classOf[i] = classNo;
+            left--;
+        }
+        return classOf;
+    }
+
+    private static int[] filled(int rooms, int value) {
+        int[] result = new int[rooms];
+        Arrays.fill(result, value);
+        return result;
+    }
+
+    private static int classCount(int[] classOf) {
+        return classOf.length == 0 ? 0 : classOf[classOf.length - 1] + 1;
+    }
+
+    @Test
+    public void allocate_shouldSeatEveryoneOnceWithoutAdjacentClassmates() {
+        int[] classOf = cohort(1200, 45, 1L);
+        int rooms = 40; // 40 个 6×5 考场，共 1200 座
+        SeatAllocator.Plan plan = SeatAllocator.allocate(classOf, classCount(classOf), filled(rooms, 6), filled(rooms, 5));
+
+        Set<Integer> seats = new HashSet<>();
+        int[][] grid = new int[rooms][30];
+        for (int[] room : grid) {
+            Arrays.fill(room, -1);
+        }
+        for (int i = 0; i < classOf.length; i++) {
+            int seat = plan.row(i) * 5 + plan.col(i);
+            assertTrue(seats.add(plan.room(i) * 30 + seat), "座位重复");
+            grid[plan.room(i)][seat] = classOf[i];
+        }
+        assertEquals(0, plan.adjacentSameClass());
+        // 独立核对：左侧、前方、左前、右前都不同班
+        for (int[] room : grid) {
+            for (int seat = 0; seat < room.length; seat++) {
+                int row = seat / 5;
+                int col = seat % 5;
+                if (col > 0) {
+                    assertTrue(room[seat] != room[seat - 1]);
+                }
+                if (row > 0) {
+                    assertTrue(room[seat] != room[seat - 5]);
+                    if (col > 0) {
+                        assertTrue(room[seat] != room[seat - 6]);
+                    }
+                    if (col < 4) {
+                        assertTrue(room[seat] != room[seat - 4]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void allocate_shouldCountUnavoidableAdjacencyForSingleClass() {
+        int[] classOf = new int[4];
+        SeatAllocator.Plan plan = SeatAllocator.allocate(classOf, 1, new int[]{2}, new int[]{2});
+        // 2×2 全部同班：左右 2 对、前后 2 对、斜向 2 对
+        assertEquals(6, plan.adjacentSameClass());
+    }
+
+    @Test
+    public void allocate_shouldRejectWhenSeatsAreInsufficient() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SeatAllocator.allocate(new int[31], 1, new int[]{6}, new int[]{5}));
+    }
+
+    @Test
+    public void allocate_shouldRejectOversizedRooms() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SeatAllocator.allocate(new int[1], 1, new int[]{SeatAllocator.MAX_ROWS + 1}, new int[]{1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> SeatAllocator.allocate(new int[1], 1, new int[]{Integer.MAX_VALUE}, new int[]{Integer.MAX_VALUE}));
+        // 每个考场都合法，但总座位数超过上限
+        int rooms = SeatAllocator.MAX_TOTAL_SEATS / (SeatAllocator.MAX_ROWS * SeatAllocator.MAX_COLS) + 1;
+        assertThrows(IllegalArgumentException.class, () -> SeatAllocator.allocate(new int[1], 1,
+                filled(rooms, SeatAllocator.MAX_ROWS), filled(rooms, SeatAllocator.MAX_COLS)));
+    }
+
+    /**
+     * 分配耗时随考生人数近似线性增长（每班约 45 人，6×5 考场），每 5000 人不超过 1 秒。
+     * 属于耗时测试，只在 mvn test -Pbenchmark 时运行
+     */
+    @Test
+    @Tag("benchmark")
+    public void benchmark_allocationTimeByCohortSize() {
+        int[] sizes = {1000, 5000, 10000, 20000, 50000};
+        // 预热，让 JIT 编译分配循环
+        for (int i = 0; i < 20; i++) {
+            int[] classOf = cohort(5000, 45, i);
+            SeatAllocator.allocate(classOf, classCount(classOf), filled(167, 6), filled(167, 5));
+        }
+        for (int size : sizes) {
+            int[] classOf = cohort(size, 45, size);
+            int rooms = (size + 29) / 30;
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 5; run++) {
+                long start = System.nanoTime();
+                SeatAllocator.allocate(classOf, classCount(classOf), filled(rooms, 6), filled(rooms, 5));
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            assertTrue(best < size / 5000.0 * 1_000_000_000L, size + " 名考生的分配耗时过长");
+        }
+    }
+}
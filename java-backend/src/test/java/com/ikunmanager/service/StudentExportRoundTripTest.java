@@ -0,0 +1,155 @@
+package com.ikunmanager.service;
+
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.model.Student;
+import com.ikunmanager.service.impl.StudentImportListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 导出的学生名单应能被 importStudents 原样读回，修改后也能按更新模式导入回同一个库
+ */
+public class StudentExportRoundTripTest {
+
+    private static List<Object> row(String no, String name, String gender, String className, String phone, String email) {
+        return Arrays.asList(no, name, gender, className, phone, email);
+    }
+
+    private static final List<List<Object>> ROWS = List.of(
+            row("S2023001", "张伟", "男", "高三(1)班", "13800000001", "zw@example.com"),
+            row("S2023002", "王芳, Jr.", "女", "高三(2)班", null, null),
+            row("00123", "李\"四\"", "男", "高三(1)班", "0755-1234", ""));
+
+    // 模拟 student 表：existing 为库中已有的学号；insert 模式写入 inserted，更新模式写入 upserted，其余方法不应被调用
+    private static StudentMapper recordingMapper(Set<String> existing, List<Student> inserted, List<Student> upserted) {
+        return (StudentMapper) Proxy.newProxyInstance(StudentMapper.class.getClassLoader(),
+                new Class<?>[]{StudentMapper.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findByStudentNos": {
+                            List<Student> found = new ArrayList<>();
+                            for (Object no : (Collection<?>) args[0]) {
+                                if (existing.contains(no)) {
+                                    Student student = new Student();
+                                    student.setId((long) found.size() + 1);
+                                    student.setStudentId((String) no);
+                                    student.setClassId(1L);
+                                    found.add(student);
+                                }
+                            }
+                            return found;
+                        }
+                        case "batchInsert":
+                        case "batchUpsert": {
+                            @SuppressWarnings("unchecked")
+                            List<Student> students = (List<Student>) args[0];
+                            ("batchInsert".equals(method.getName()) ? inserted : upserted).addAll(students);
+                            return students.size();
+                        }
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static byte[] export(List<List<Object>> rows, boolean csv) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TableSink sink = csv
+                ? TableSink.csv(out, StudentImportListener.COLUMNS)
+                : TableSink.excel(out, StudentImportListener.COLUMNS, "学生");
+        for (List<Object> row : rows) {
+            sink.row(row);
+        }
+        sink.finish();
+        return out.toByteArray();
+    }
+
+    private static ImportResult importBack(byte[] file, boolean csv, Set<String> existing, boolean updateExisting,
+                                           List<Student> inserted, List<Student> upserted) {
+        StudentImportListener listener = new StudentImportListener(Map.of("高三(1)班", 1L, "高三(2)班", 2L), null,
+                recordingMapper(existing, inserted, upserted), updateExisting);
+        listener.read(new ByteArrayInputStream(file), csv);
+        return listener.getResult();
+    }
+
+    private static List<Student> roundTrip(boolean csv) throws IOException {
+        List<Student> inserted = new ArrayList<>();
+        ImportResult result = importBack(export(ROWS, csv), csv, Set.of(), false, inserted, new ArrayList<>());
+        assertEquals(ROWS.size(), result.getSuccessRows(), String.valueOf(result.getErrors()));
+        return inserted;
+    }
+
+    private static void assertSameRoster(List<Student> students) {
+        assertEquals(ROWS.size(), students.size());
+        for (int i = 0; i < ROWS.size(); i++) {
+            List<Object> expected = ROWS.get(i);
+            Student actual = students.get(i);
+            assertEquals(expected.get(0), actual.getStudentId());
+            assertEquals(expected.get(1), actual.getName());
+            assertEquals(expected.get(2), actual.getGender());
+            assertEquals("高三(1)班".equals(expected.get(3)) ? 1L : 2L, actual.getClassId());
+            assertEquals(expected.get(4), actual.getPhone());
+            assertEquals("".equals(expected.get(5)) ? null : expected.get(5), actual.getEmail());
+        }
+    }
+
+    @Test
+    public void xlsxExport_shouldImportBack() throws IOException {
+        assertSameRoster(roundTrip(false));
+    }
+
+    @Test
+    public void csvExport_shouldImportBack() throws IOException {
+        assertSameRoster(roundTrip(true));
+    }
+
+    @Test
+    public void editedExport_shouldUpdateExistingStudentsOnlyInUpdateMode() throws IOException {
+        // 导出 → 修改姓名和班级 → 导入回同一个库
+        List<List<Object>> edited = new ArrayList<>(ROWS);
+        edited.set(0, row("S2023001", "张伟伟", "男", "高三(2)班", "13800000001", "zw@example.com"));
+        byte[] file = export(edited, false);
+        Set<String> existing = Set.of("S2023001", "S2023002", "00123");
+
+        List<Student> inserted = new ArrayList<>();
+        ImportResult insertOnly = importBack(file, false, existing, false, inserted, new ArrayList<>());
+        assertEquals(0, insertOnly.getSuccessRows());
+        assertEquals(ROWS.size(), insertOnly.getFailedRows());
+        assertTrue(insertOnly.getErrors().get(0).getMessage().contains("已存在"));
+        assertTrue(inserted.isEmpty());
+
+        List<Student> upserted = new ArrayList<>();
+        ImportResult update = importBack(file, false, existing, true, new ArrayList<>(), upserted);
+        assertEquals(ROWS.size(), update.getSuccessRows(), String.valueOf(update.getErrors()));
+        assertEquals("张伟伟", upserted.get(0).getName());
+        assertEquals(2L, upserted.get(0).getClassId());
+        assertEquals("王芳, Jr.", upserted.get(1).getName());
+    }
+
+    @Test
+    public void excelSink_shouldBufferLessThanOneBatch() throws IOException {
+        TableSink.ExcelSink sink = (TableSink.ExcelSink) TableSink.excel(
+                OutputStream.nullOutputStream(), StudentImportListener.COLUMNS, "学生");
+        int rows = TableSink.ExcelSink.EXCEL_BATCH_SIZE * 3 + 7;
+        for (int i = 1; i <= rows; i++) {
+            sink.row(row(String.format("S%07d", i), "学生" + i, "男", "高三(1)班", null, null));
+            assertTrue(sink.bufferedRows() < TableSink.ExcelSink.EXCEL_BATCH_SIZE);
+        }
+        assertEquals(7, sink.bufferedRows());
+        sink.finish();
+    }
+}
@@ -0,0 +1,187 @@
+package com.ikunmanager.service.impl;
+
+import com.ikunmanager.dto.ImportResult;
+import com.ikunmanager.mapper.StudentMapper;
+import com.ikunmanager.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StudentImportListenerTest {
+
+    private static final Map<String, Long> CLASS_IDS = Map.of("一班", 1L, "二班", 2L);
+
+    // 记录 batchInsert / batchUpsert 的每一批；existingNos 中的学号视为已在库中（ID 为学号中的数字、
+    // 班级为一班，S005 关联用户 500），duplicateNos 中的学号插入时冲突
+    private static final class FakeMapper {
+        private final Set<String> existingNos;
+        private final Set<String> duplicateNos;
+        private final List<List<Student>> batches = new ArrayList<>();
+        private final List<List<Student>> upserts = new ArrayList<>();
+        private final List<Student> singleInserts = new ArrayList<>();
+
+        FakeMapper(Set<String> existingNos, Set<String> duplicateNos) {
+            this.existingNos = existingNos;
+            this.duplicateNos = duplicateNos;
+        }
+
+        StudentMapper proxy() {
+            return (StudentMapper) Proxy.newProxyInstance(StudentMapper.class.getClassLoader(),
+                    new Class<?>[]{StudentMapper.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "findByStudentNos": {
+                                List<Student> found = new ArrayList<>();
+                                for (Object no : (Collection<?>) args[0]) {
+                                    if (existingNos.contains(no)) {
+                                        Student student = new Student();
+                                        student.setId(Long.parseLong(((String) no).substring(1)));
+                                        student.setStudentId((String) no);
+                                        student.setClassId(1L);
+                                        student.setUserId("S005".equals(no) ? 500L : null);
+                                        found.add(student);
+                                    }
+                                }
+                                return found;
+                            }
+                            case "batchInsert": {
+                                @SuppressWarnings("unchecked")
+                                List<Student> students = (List<Student>) args[0];
+                                for (Student student : students) {
+                                    if (duplicateNos.contains(student.getStudentId())) {
+                                        throw new DuplicateKeyException(student.getStudentId());
+                                    }
+                                }
+                                batches.add(new ArrayList<>(students));
+                                return students.size();
+                            }
+                            case "batchUpsert": {
+                                @SuppressWarnings("unchecked")
+                                List<Student> students = (List<Student>) args[0];
+                                upserts.add(new ArrayList<>(students));
+                                return students.size();
+                            }
+                            case "insert": {
+                                Student student = (Student) args[0];
+                                if (duplicateNos.contains(student.getStudentId())) {
+                                    throw new DuplicateKeyException(student.getStudentId());
+                                }
+                                singleInserts.add(student);
+                                return 1;
+                            }
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+
+    private static StudentImportListener read(String body, Pattern pattern, FakeMapper mapper, boolean updateExisting) {
+        String csv = "学号,姓名,性别,班级,电话,邮箱\r\n" + body;
+        StudentImportListener listener = new StudentImportListener(CLASS_IDS, pattern, mapper.proxy(), updateExisting);
+        listener.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+        return listener;
+    }
+
+    private static ImportResult importCsv(String body, Pattern pattern, FakeMapper mapper) {
+        return read(body, pattern, mapper, false).getResult();
+    }
+
+    @Test
+    public void read_shouldInsertInBatchesOfBatchSize() {
+        int rows = StudentImportListener.BATCH_SIZE * 2 + 1;
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            body.append(String.format("S%05d,学生%d,男,一班,,\r\n", i, i));
+        }
+        FakeMapper mapper = new FakeMapper(Set.of(), Set.of());
+
+        ImportResult result = importCsv(body.toString(), null, mapper);
+
+        assertEquals(rows, result.getTotalRows());
+        assertEquals(rows, result.getSuccessRows());
+        assertEquals(0, result.getFailedRows());
+        assertEquals(3, mapper.batches.size());
+        assertEquals(StudentImportListener.BATCH_SIZE, mapper.batches.get(0).size());
+        assertEquals(StudentImportListener.BATCH_SIZE, mapper.batches.get(1).size());
+        assertEquals(1, mapper.batches.get(2).size());
+        assertEquals("S00001", mapper.batches.get(0).get(0).getStudentId());
+    }
+
+    @Test
+    public void read_shouldReportEachInvalidRowAndKeepTheRest() {
+        String body = ""
+                + "S001,张三,男,一班,,\r\n"      // 第 2 行：正常
+                + ",李四,女,一班,,\r\n"          // 第 3 行：学号为空
+                + "X9,王五,男,一班,,\r\n"        // 第 4 行：学号格式不符
+                + "S001,赵六,男,二班,,\r\n"      // 第 5 行：表内重复
+                + "S002,,男,一班,,\r\n"          // 第 6 行：姓名为空
+                + "S003,钱七,男,,,\r\n"          // 第 7 行：班级为空
+                + "S004,孙八,女,三班,,\r\n"      // 第 8 行：班级不存在
+                + "S005,周九,女,二班,,\r\n"      // 第 9 行：库中已存在
+                + "S006,吴十,男,二班,,\r\n";     // 第 10 行：正常
+        FakeMapper mapper = new FakeMapper(Set.of("S005"), Set.of());
+
+        ImportResult result = importCsv(body, Pattern.compile("S\\d{3}"), mapper);
+
+        assertEquals(9, result.getTotalRows());
+        assertEquals(2, result.getSuccessRows());
+        assertEquals(7, result.getFailedRows());
+        List<Integer> errorRows = new ArrayList<>();
+        for (ImportResult.RowError error : result.getErrors()) {
+            errorRows.add(error.getRow());
+        }
+        assertEquals(List.of(3, 4, 5, 6, 7, 8, 9), errorRows);
+        assertEquals("学号“S005”已存在", result.getErrors().get(6).getMessage());
+        assertEquals(1, mapper.batches.size());
+        assertEquals(List.of("S001", "S006"), List.of(
+                mapper.batches.get(0).get(0).getStudentId(), mapper.batches.get(0).get(1).getStudentId()));
+        assertEquals(2L, mapper.batches.get(0).get(1).getClassId());
+    }
+
+    @Test
+    public void read_shouldFallBackToSingleInsertsWhenBatchHitsDuplicate() {
+        // 预查时不存在、写入时被并发插入的学号：只有这一行失败
+        String body = "S001,张三,男,一班,,\r\nS002,李四,女,一班,,\r\nS003,王五,男,二班,,\r\n";
+        FakeMapper mapper = new FakeMapper(Set.of(), Set.of("S002"));
+
+        ImportResult result = importCsv(body, null, mapper);
+
+        assertEquals(2, result.getSuccessRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals(0, mapper.batches.size());
+        assertEquals(2, mapper.singleInserts.size());
+    }
+
+    @Test
+    public void read_shouldUpdateExistingStudentsInUpdateMode() {
+        String body = ""
+                + "S005,周九,女,二班,13800000005,\r\n"   // 已存在，调到二班
+                + "S006,吴十,男,一班,,\r\n"              // 已存在，班级不变
+                + "S007,郑十一,男,一班,,\r\n";            // 新学生
+        FakeMapper mapper = new FakeMapper(Set.of("S005", "S006"), Set.of());
+
+        StudentImportListener listener = read(body, null, mapper, true);
+
+        ImportResult result = listener.getResult();
+        assertEquals(3, result.getSuccessRows());
+        assertEquals(0, result.getFailedRows());
+        assertEquals(0, mapper.batches.size());
+        assertEquals(1, mapper.upserts.size());
+        assertEquals(3, mapper.upserts.get(0).size());
+        assertEquals("13800000005", mapper.upserts.get(0).get(0).getPhone());
+        assertEquals(Map.of(5L, 2L), listener.getMovedStudents());
+        assertEquals(Set.of(500L), listener.getUpdatedUserIds());
+    }
+}